@@ -0,0 +1,138 @@
+package io.csra.wily.components.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs blocking work off the caller's thread and hands back a {@link CompletableFuture}, which makes it easy for a
+ * controller to return a DeferredResult and free the request thread while the I/O completes.
+ *
+ * Cancelling the returned future, or letting it time out, interrupts the task if it is still running. Exceptions thrown
+ * by the task complete the future exceptionally as-is, without being wrapped.
+ */
+public class AsyncExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncExecutor.class);
+
+    private final ExecutorService executor;
+
+    public AsyncExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an executor backed by virtual threads when running on JDK 21 or later and they are preferred, otherwise
+     * by a fixed pool of daemon platform threads.
+     *
+     * @param threadNamePrefix name prefix for platform threads
+     * @param preferVirtualThreads use a virtual thread per task when the JDK supports it
+     * @param platformThreads size of the platform thread pool used otherwise
+     * @return a new executor
+     */
+    public static AsyncExecutor create(String threadNamePrefix, boolean preferVirtualThreads, int platformThreads) {
+        if (preferVirtualThreads) {
+            ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+            if (virtualThreads != null) {
+                return new AsyncExecutor(virtualThreads);
+            }
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+        return new AsyncExecutor(Executors.newFixedThreadPool(platformThreads, threadFactory));
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param task blocking work to run
+     * @param timeout time after which the future fails with a TimeoutException and the task is interrupted; zero or
+     *                less waits indefinitely
+     * @param unit unit of the timeout
+     * @return future completed with the task's result
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, long timeout, TimeUnit unit) {
+        CompletableFuture<T> promise = new CompletableFuture<>();
+
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                try {
+                    promise.complete(task.call());
+                } catch (Throwable t) {
+                    promise.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            promise.completeExceptionally(e);
+            return promise;
+        }
+
+        if (timeout > 0) {
+            ScheduledFuture<?> timer = Timeouts.SCHEDULER.schedule(
+                    () -> promise.completeExceptionally(new TimeoutException("Timed out after " + timeout + " " + unit)),
+                    timeout, unit);
+            promise.whenComplete((result, t) -> timer.cancel(false));
+        }
+
+        promise.whenComplete((result, t) -> {
+            if (t != null) {
+                running.cancel(true);
+            }
+        });
+
+        return promise;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executor;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Virtual threads are not available on this JDK, using platform threads.");
+            return null;
+        }
+    }
+
+    /**
+     * One shared timer thread for every executor; it only ever completes futures, so it never blocks.
+     */
+    private static final class Timeouts {
+
+        private static final ScheduledThreadPoolExecutor SCHEDULER;
+
+        static {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("async-timeout-");
+            threadFactory.setDaemon(true);
+            SCHEDULER = new ScheduledThreadPoolExecutor(1, threadFactory);
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+        }
+
+        private Timeouts() {
+        }
+    }
+
+}
@@ -1,6 +1,12 @@
 package io.csra.wily.components.config;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.servlet.MultipartConfigElement;
 
@@ -11,18 +17,30 @@ import com.github.dozermapper.core.DozerBeanMapperBuilder;
 import com.github.dozermapper.core.Mapper;
 import com.smartystreets.api.ClientBuilder;
 import com.smartystreets.api.us_street.Client;
+import io.csra.wily.components.concurrent.AsyncExecutor;
 import io.csra.wily.components.converter.BooleanStringConverter;
+import io.csra.wily.components.converter.InMemoryMappingMetrics;
 import io.csra.wily.components.interceptor.JsonHijackingInterceptor;
+import io.csra.wily.components.service.AddressVerificationCache;
 import io.csra.wily.components.service.AmazonS3Service;
+import io.csra.wily.components.service.AsyncAmazonS3Service;
 import io.csra.wily.components.service.impl.AmazonS3ServiceImpl;
+import io.csra.wily.components.service.impl.AsyncAmazonS3ServiceImpl;
+import io.csra.wily.components.service.impl.CachingAmazonS3Service;
+import io.csra.wily.components.service.impl.EhcacheAddressVerificationCache;
+import io.csra.wily.components.service.impl.RedisAddressVerificationCache;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.servlet.MultipartConfigFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -56,6 +74,16 @@ public class MasterApplicationConfig implements WebMvcConfigurer {
                 .build();
     }
 
+    /**
+     * Timings of every DozerMapperPlus call, per source class, destination class and map id. Replace this bean with
+     * another MappingMetricsSink to publish them elsewhere.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "dozer.metrics.enabled", havingValue = "true")
+    public InMemoryMappingMetrics mappingMetrics() {
+        return new InMemoryMappingMetrics();
+    }
+
     @Bean
     public MultipartConfigElement multipartConfigElement() {
         MultipartConfigFactory factory = new MultipartConfigFactory();
@@ -88,6 +116,55 @@ public class MasterApplicationConfig implements WebMvcConfigurer {
         return new ClientBuilder(authId, authToken).buildUsStreetApiClient();
     }
 
+    /**
+     * Pool the AddressService uses to send the batches of a large checkAddresses call in parallel. Size it with
+     * smartystreets.batch.threads; smartystreets.batch.max.concurrent separately caps the requests in flight.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService addressVerificationExecutor() {
+        int threads = environment.getProperty("smartystreets.batch.threads", Integer.class, 4);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("smartystreets-batch-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Executor behind the AddressService's *Async methods. Uses virtual threads on JDK 21+ unless
+     * smartystreets.async.virtual.threads is false, otherwise a pool of smartystreets.async.threads platform threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public AsyncExecutor addressVerificationAsyncExecutor() {
+        boolean virtualThreads = environment.getProperty("smartystreets.async.virtual.threads", Boolean.class, true);
+        int threads = environment.getProperty("smartystreets.async.threads", Integer.class, 16);
+
+        return AsyncExecutor.create("smartystreets-async-", virtualThreads, threads);
+    }
+
+    /**
+     * Cache of verified addresses, consulted by the AddressService before calling SmartyStreets. Set
+     * smartystreets.cache.type to "redis" to share the cache across nodes (requires a RedisConnectionFactory bean),
+     * otherwise an in-process cache is used.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "smartystreets.cache.enabled", havingValue = "true")
+    public AddressVerificationCache addressVerificationCache(ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        Duration timeToLive = Duration.ofMinutes(environment.getProperty("smartystreets.cache.ttl.minutes", Long.class, 1440L));
+        Duration negativeTimeToLive = Duration.ofMinutes(environment.getProperty("smartystreets.cache.negative.ttl.minutes", Long.class, 60L));
+
+        if ("redis".equalsIgnoreCase(environment.getProperty("smartystreets.cache.type"))) {
+            RedisConnectionFactory connectionFactory = redisConnectionFactory.getIfAvailable();
+            if (connectionFactory == null) {
+                throw new IllegalStateException("smartystreets.cache.type is redis but no RedisConnectionFactory is configured.");
+            }
+
+            return new RedisAddressVerificationCache(connectionFactory, timeToLive, negativeTimeToLive);
+        }
+
+        long maxEntries = environment.getProperty("smartystreets.cache.max.entries", Long.class, 10000L);
+        return new EhcacheAddressVerificationCache(maxEntries, timeToLive, negativeTimeToLive);
+    }
+
     @Bean
     @ConditionalOnProperty(name = "aws.s3.enabled", havingValue = "true")
     public AmazonS3 amazonS3() {
@@ -97,10 +174,64 @@ public class MasterApplicationConfig implements WebMvcConfigurer {
                 .build();
     }
 
+    /**
+     * Pool the AmazonS3Service uses to send the parts of large uploads, and the requests of bulk operations, in parallel.
+     * Size it with aws.s3.transfer.threads; aws.s3.multipart.max.in.flight separately caps the parts buffered per upload
+     * and aws.s3.bulk.max.in.flight the requests in flight per bulk operation.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "aws.s3.enabled", havingValue = "true")
+    public ExecutorService amazonS3TransferExecutor() {
+        int threads = environment.getProperty("aws.s3.transfer.threads", Integer.class, 4);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-transfer-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Set aws.s3.cache.enabled to keep read documents on local disk (aws.s3.cache.directory), up to
+     * aws.s3.cache.max.bytes in total. Cached copies are checked against S3's ETag on each read, or only once per
+     * aws.s3.cache.validate.after.seconds if that is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aws.s3.enabled", havingValue = "true")
+    public AmazonS3Service amazonS3Service(Environment environment, AmazonS3 amazonS3,
+                                           @Qualifier("amazonS3TransferExecutor") ExecutorService amazonS3TransferExecutor) throws IOException {
+        AmazonS3ServiceImpl amazonS3Service = new AmazonS3ServiceImpl(environment, amazonS3);
+        amazonS3Service.setTransferExecutor(amazonS3TransferExecutor);
+
+        if (!environment.getProperty("aws.s3.cache.enabled", Boolean.class, false)) {
+            return amazonS3Service;
+        }
+
+        Path directory = Paths.get(environment.getProperty("aws.s3.cache.directory",
+                Paths.get(System.getProperty("java.io.tmpdir"), "wily-s3-cache").toString()));
+        long maxBytes = environment.getProperty("aws.s3.cache.max.bytes", Long.class, 256L * 1024 * 1024);
+        long validationSeconds = environment.getProperty("aws.s3.cache.validate.after.seconds", Long.class, 0L);
+        return new CachingAmazonS3Service(amazonS3Service, directory, maxBytes, Duration.ofSeconds(validationSeconds));
+    }
+
+    /**
+     * Executor behind the AsyncAmazonS3Service. Uses virtual threads on JDK 21+ unless aws.s3.async.virtual.threads is
+     * false, otherwise a pool of aws.s3.async.threads platform threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "aws.s3.enabled", havingValue = "true")
+    public AsyncExecutor amazonS3AsyncExecutor() {
+        boolean virtualThreads = environment.getProperty("aws.s3.async.virtual.threads", Boolean.class, true);
+        int threads = environment.getProperty("aws.s3.async.threads", Integer.class, 16);
+
+        return AsyncExecutor.create("s3-async-", virtualThreads, threads);
+    }
+
     @Bean
     @ConditionalOnProperty(name = "aws.s3.enabled", havingValue = "true")
-    public AmazonS3Service amazonS3Service(Environment environment, AmazonS3 amazonS3) {
-        return new AmazonS3ServiceImpl(environment, amazonS3);
+    public AsyncAmazonS3Service asyncAmazonS3Service(AmazonS3Service amazonS3Service,
+                                                     @Qualifier("amazonS3AsyncExecutor") AsyncExecutor amazonS3AsyncExecutor) {
+        AsyncAmazonS3ServiceImpl asyncAmazonS3Service = new AsyncAmazonS3ServiceImpl(amazonS3Service, amazonS3AsyncExecutor);
+        asyncAmazonS3Service.setTimeoutMillis(environment.getProperty("aws.s3.async.timeout.millis", Long.class, 0L));
+        return asyncAmazonS3Service;
     }
 
     protected List<String> getMappingFiles() {
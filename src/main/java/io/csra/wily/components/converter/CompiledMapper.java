@@ -0,0 +1,154 @@
+package io.csra.wily.components.converter;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps one source class to one destination class without going through Dozer: the destination's no-arg constructor
+ * and a chain of getter-to-setter {@link MethodHandle}s, one per property the two classes share.
+ *
+ * Only mappings whose result is certain to match Dozer's defaults are compiled: every shared property must have the
+ * same immutable type on both sides (primitives, wrappers, String, BigDecimal, BigInteger, enums), or be a boolean
+ * mapped to a String. Dozer applies converters registered with the builder, such as {@link BooleanStringConverter},
+ * only where a mapping file names them, so a boolean becomes "true" or "false" here as it does in Dozer's own
+ * conversion. {@link #compile} returns null for anything else, and the caller uses Dozer instead.
+ */
+final class CompiledMapper {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType COPY_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandle constructor;
+    private final MethodHandle[] copies;
+
+    private CompiledMapper(MethodHandle constructor, MethodHandle[] copies) {
+        this.constructor = constructor;
+        this.copies = copies;
+    }
+
+    /**
+     * @return a mapper, or null if the pair has to be mapped by Dozer
+     */
+    static CompiledMapper compile(Class<?> sourceClass, Class<?> destinationClass) {
+        if (!isBean(sourceClass) || !isBean(destinationClass) || Modifier.isAbstract(destinationClass.getModifiers())) {
+            return null;
+        }
+
+        try {
+            Constructor<?> noArgs = destinationClass.getDeclaredConstructor();
+            noArgs.setAccessible(true);
+            MethodHandle constructor = LOOKUP.unreflectConstructor(noArgs).asType(CONSTRUCTOR_TYPE);
+
+            Map<String, PropertyDescriptor> sourceProperties = new HashMap<>();
+            for (PropertyDescriptor property : properties(sourceClass)) {
+                if (property.getReadMethod() != null) {
+                    sourceProperties.put(property.getName(), property);
+                }
+            }
+
+            List<MethodHandle> copies = new ArrayList<>();
+            for (PropertyDescriptor destinationProperty : properties(destinationClass)) {
+                PropertyDescriptor sourceProperty = sourceProperties.get(destinationProperty.getName());
+                if (destinationProperty.getWriteMethod() == null || sourceProperty == null) {
+                    continue;
+                }
+
+                MethodHandle copy = copy(sourceProperty, destinationProperty);
+                if (copy == null) {
+                    return null;
+                }
+                copies.add(copy);
+            }
+
+            return new CompiledMapper(constructor, copies.toArray(new MethodHandle[0]));
+        } catch (NoSuchMethodException | IllegalAccessException | IntrospectionException | SecurityException e) {
+            return null;
+        }
+    }
+
+    Object map(Object source) {
+        try {
+            Object destination = (Object) constructor.invokeExact();
+            for (MethodHandle copy : copies) {
+                copy.invokeExact(source, destination);
+            }
+
+            return destination;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to map " + source.getClass().getName(), t);
+        }
+    }
+
+    /**
+     * @return a (source, destination) handle that copies one property, or null if Dozer has to map it
+     */
+    private static MethodHandle copy(PropertyDescriptor sourceProperty, PropertyDescriptor destinationProperty)
+            throws IllegalAccessException, NoSuchMethodException {
+        Class<?> sourceType = sourceProperty.getPropertyType();
+        Class<?> destinationType = destinationProperty.getPropertyType();
+
+        MethodHandle getter = LOOKUP.unreflect(accessible(sourceProperty.getReadMethod()));
+        MethodHandle setter = LOOKUP.unreflect(accessible(destinationProperty.getWriteMethod()));
+
+        MethodHandle value;
+        if (sourceType == destinationType && isImmutable(sourceType)) {
+            value = getter;
+        } else if (ClassUtils.primitiveToWrapper(sourceType) == Boolean.class && destinationType == String.class) {
+            MethodHandle toString = LOOKUP.findStatic(CompiledMapper.class, "booleanToString",
+                    MethodType.methodType(String.class, Boolean.class));
+            value = MethodHandles.filterReturnValue(getter.asType(getter.type().changeReturnType(Boolean.class)), toString);
+        } else {
+            return null;
+        }
+
+        // setter(destination, getter(source)), reordered to take (source, destination)
+        MethodHandle copy = MethodHandles.filterArguments(setter, 1, value.asType(value.type().changeReturnType(destinationType)));
+        return MethodHandles.permuteArguments(copy.asType(COPY_TYPE), COPY_TYPE, 1, 0);
+    }
+
+    private static String booleanToString(Boolean value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static PropertyDescriptor[] properties(Class<?> clazz) throws IntrospectionException {
+        BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
+        return beanInfo.getPropertyDescriptors();
+    }
+
+    private static Method accessible(Method method) {
+        method.setAccessible(true);
+        return method;
+    }
+
+    private static boolean isBean(Class<?> clazz) {
+        return !clazz.isPrimitive() && !clazz.isArray() && !clazz.isInterface() && !clazz.isEnum() && !isImmutable(clazz)
+                && !Map.class.isAssignableFrom(clazz) && !Collection.class.isAssignableFrom(clazz);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type.isPrimitive() || ClassUtils.isPrimitiveWrapper(type) || type.isEnum()
+                || type == String.class || type == BigDecimal.class || type == BigInteger.class;
+    }
+
+}
@@ -1,11 +1,29 @@
 package io.csra.wily.components.converter;
 
 import com.github.dozermapper.core.Mapper;
+import com.github.dozermapper.core.MapperModelContext;
 import com.github.dozermapper.core.MappingException;
+import com.github.dozermapper.core.metadata.ClassMappingMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * This is an extension of the DozerBeanMapper that adds the capability to map a List of objects,
@@ -17,15 +35,90 @@ import java.util.List;
 @Component
 public class DozerMapperPlus {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DozerMapperPlus.class);
+
+    /**
+     * Items each fork-join task maps before it stops splitting.
+     */
+    private static final int PARALLEL_CHUNK_SIZE = 1024;
+
     private Mapper mapper;
 
+    private int parallelThreshold;
+
+    private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+    private boolean fastPathEnabled;
+
+    private final ConcurrentMap<MappingKey, Optional<CompiledMapper>> compiledMappers = new ConcurrentHashMap<>();
+
+    /**
+     * Guarded by this; null until the mapper's configuration has been checked.
+     */
+    private Boolean fastPathUsable;
+
+    /**
+     * Classes named by a class mapping when the fast path was enabled. Dozer also lists the default mappings it creates
+     * as it goes, so the set is taken before any mapping runs.
+     */
+    private volatile Set<Class<?>> explicitlyMappedClasses;
+
+    private MappingMetricsSink metricsSink;
+
 	public DozerMapperPlus(Mapper mapper) {
 	    this.mapper = mapper;
     }
 
+    /**
+     * Lists with at least this many items are mapped in parallel on the fork-join pool. Custom converters must then be
+     * thread-safe and must not rely on thread-bound state such as the request or security context.
+     *
+     * @param parallelThreshold minimum list size for parallel mapping; zero or less always maps on the calling thread
+     */
+    @Value("${dozer.parallel.threshold:0}")
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * @param forkJoinPool pool used for parallel mapping; defaults to the common pool
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * When enabled, a mapping without a map id is compiled the first time it is used into a direct getter-to-setter
+     * copy (see {@link CompiledMapper}) if its classes only share properties of simple immutable types, and Dozer has
+     * no class mapping, event listener or custom field mapper that could change the result. Every other mapping still
+     * goes through Dozer. Global converters declared in mapping files are not visible here; leave the fast path off if
+     * the mapping files declare any.
+     *
+     * @param fastPathEnabled compile simple mappings instead of running them through Dozer
+     */
+    @Value("${dozer.fast.path.enabled:false}")
+    public void setFastPathEnabled(boolean fastPathEnabled) {
+        if (fastPathEnabled && explicitlyMappedClasses == null) {
+            explicitlyMappedClasses = explicitlyMappedClasses();
+        }
+        this.fastPathEnabled = fastPathEnabled;
+    }
+
+    /**
+     * Records how long each map() and mapList() call takes, per source class, destination class and map id. Without a
+     * sink nothing is timed.
+     *
+     * @param metricsSink where to send timings, or null to stop recording
+     */
+    @Autowired(required = false)
+    public void setMetricsSink(MappingMetricsSink metricsSink) {
+        this.metricsSink = metricsSink;
+    }
+
     /**
      * Map a list of objects of one type to a list of objects of another type. Uses an ArrayList as the
-     * list implementation under the hood.
+     * list implementation under the hood. The destination keeps the order of the source, including when
+     * a large list is mapped in parallel (see {@link #setParallelThreshold(int)}).
      *
      * @param source
      * @param clazz
@@ -34,14 +127,73 @@ public class DozerMapperPlus {
      * @return
      */
     public <S, D> List<D> mapList(List<S> source, Class<D> clazz) {
-        List<D> destination = new ArrayList<>();
+        if (source == null) {
+            return new ArrayList<>();
+        }
 
-        if(source != null) {
+        MappingMetricsSink sink = metricsSink;
+        long started = sink == null ? 0 : System.nanoTime();
+
+        List<D> destination;
+        if (parallelThreshold > 0 && source.size() >= parallelThreshold) {
+            destination = mapListInParallel(source instanceof RandomAccess ? source : new ArrayList<>(source), clazz);
+        } else {
+            destination = new ArrayList<>(source.size());
             for (S s : source) {
-                destination.add(map(s, clazz));
+                destination.add(convert(s, clazz));
             }
         }
 
+        if (sink != null) {
+            sink.recordList(sourceClassOf(source), clazz, null, System.nanoTime() - started, destination.size());
+        }
+        return destination;
+    }
+
+    /**
+     * Map any Iterable of objects to an ArrayList of objects of another type, in iteration order.
+     */
+    public <S, D> List<D> mapList(Iterable<S> source, Class<D> clazz) {
+        if (source instanceof List) {
+            return mapList((List<S>) source, clazz);
+        }
+
+        List<D> destination = source instanceof Collection ? new ArrayList<>(((Collection<S>) source).size()) : new ArrayList<>();
+        if (source == null) {
+            return destination;
+        }
+
+        MappingMetricsSink sink = metricsSink;
+        long started = sink == null ? 0 : System.nanoTime();
+
+        // The source may only be iterable once, so the class to record is taken while mapping
+        Class<?> sourceClass = Object.class;
+        for (S s : source) {
+            if (sourceClass == Object.class && s != null) {
+                sourceClass = s.getClass();
+            }
+            destination.add(convert(s, clazz));
+        }
+
+        if (sink != null) {
+            sink.recordList(sourceClass, clazz, null, System.nanoTime() - started, destination.size());
+        }
+        return destination;
+    }
+
+    /**
+     * Lazily map a stream of objects; each item is mapped only when the returned stream pulls it. A parallel source
+     * stream is mapped in parallel.
+     */
+    public <S, D> Stream<D> mapStream(Stream<S> source, Class<D> clazz) {
+        return source.map(s -> map(s, clazz));
+    }
+
+    private <S, D> List<D> mapListInParallel(List<S> source, Class<D> clazz) {
+        // Each task sets its own range of slots, and invoke() waits for all of them before the list is returned
+        List<D> destination = new ArrayList<>(Collections.nCopies(source.size(), null));
+        forkJoinPool.invoke(new MapTask<>(source, destination, s -> convert(s, clazz), 0, source.size()));
+
         return destination;
     }
 
@@ -51,7 +203,15 @@ public class DozerMapperPlus {
             return null;
         }
 
-        return mapper.map(source, destinationClass, mapId);
+        MappingMetricsSink sink = metricsSink;
+        if (sink == null) {
+            return mapper.map(source, destinationClass, mapId);
+        }
+
+        long started = System.nanoTime();
+        T destination = mapper.map(source, destinationClass, mapId);
+        sink.recordMap(source.getClass(), destinationClass, mapId, System.nanoTime() - started);
+        return destination;
     }
 
     public <T> T map(Object source, Class<T> destinationClass) throws MappingException {
@@ -59,7 +219,143 @@ public class DozerMapperPlus {
             return null;
         }
 
+        MappingMetricsSink sink = metricsSink;
+        if (sink == null) {
+            return convert(source, destinationClass);
+        }
+
+        long started = System.nanoTime();
+        T destination = convert(source, destinationClass);
+        sink.recordMap(source.getClass(), destinationClass, null, System.nanoTime() - started);
+        return destination;
+    }
+
+    /**
+     * map(source, destinationClass) without metrics, for mapping the items of a list that is timed as a whole.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T convert(Object source, Class<T> destinationClass) {
+        if (source == null) {
+            return null;
+        }
+
+        if (fastPathEnabled) {
+            CompiledMapper compiled = compiledMapper(new MappingKey(source.getClass(), destinationClass, null));
+            if (compiled != null) {
+                return (T) compiled.map(source);
+            }
+        }
+
         return mapper.map(source, destinationClass);
     }
 
+    private static Class<?> sourceClassOf(List<?> source) {
+        for (Object s : source) {
+            if (s != null) {
+                return s.getClass();
+            }
+        }
+
+        return Object.class;
+    }
+
+    /**
+     * @return whether mapping sourceClass to destinationClass has been compiled to the fast path
+     */
+    boolean isCompiled(Class<?> sourceClass, Class<?> destinationClass) {
+        Optional<CompiledMapper> compiled = compiledMappers.get(new MappingKey(sourceClass, destinationClass, null));
+        return compiled != null && compiled.isPresent();
+    }
+
+    private CompiledMapper compiledMapper(MappingKey key) {
+        Optional<CompiledMapper> compiled = compiledMappers.get(key);
+        if (compiled == null) {
+            compiled = compiledMappers.computeIfAbsent(key, this::compile);
+        }
+
+        return compiled.orElse(null);
+    }
+
+    private Optional<CompiledMapper> compile(MappingKey key) {
+        if (key.getMapId() != null || !isFastPathUsable() || hasClassMapping(key)) {
+            return Optional.empty();
+        }
+
+        CompiledMapper compiled = CompiledMapper.compile(key.getSourceClass(), key.getDestinationClass());
+        LOGGER.debug("{} mapped by {}", key, compiled == null ? "Dozer" : "compiled fast path");
+        return Optional.ofNullable(compiled);
+    }
+
+    /**
+     * Checks the mapper's configuration the first time a mapping is compiled.
+     *
+     * @return false if Dozer is configured in a way the fast path can't reproduce
+     */
+    private synchronized boolean isFastPathUsable() {
+        if (fastPathUsable == null) {
+            try {
+                MapperModelContext context = mapper.getMapperModelContext();
+                fastPathUsable = context.getEventListeners().isEmpty() && context.getCustomFieldMapper() == null;
+            } catch (RuntimeException e) {
+                fastPathUsable = false;
+            }
+
+            if (!fastPathUsable) {
+                LOGGER.info("Dozer is configured with event listeners or a custom field mapper; every mapping goes through Dozer.");
+            }
+        }
+
+        return fastPathUsable;
+    }
+
+    private boolean hasClassMapping(MappingKey key) {
+        return explicitlyMappedClasses.contains(key.getSourceClass()) || explicitlyMappedClasses.contains(key.getDestinationClass());
+    }
+
+    private Set<Class<?>> explicitlyMappedClasses() {
+        Set<Class<?>> classes = new HashSet<>();
+        for (ClassMappingMetadata classMapping : mapper.getMappingMetadata().getClassMappings()) {
+            classes.add(classMapping.getSourceClass());
+            classes.add(classMapping.getDestinationClass());
+        }
+
+        return classes;
+    }
+
+    /**
+     * Maps one range of a list into the same range of the destination, splitting it in half until it is small enough.
+     */
+    private static class MapTask<S, D> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<S> source;
+        private final List<D> destination;
+        private final Function<? super S, ? extends D> mapping;
+        private final int from;
+        private final int to;
+
+        MapTask(List<S> source, List<D> destination, Function<? super S, ? extends D> mapping, int from, int to) {
+            this.source = source;
+            this.destination = destination;
+            this.mapping = mapping;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    destination.set(i, mapping.apply(source.get(i)));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new MapTask<>(source, destination, mapping, from, middle),
+                    new MapTask<>(source, destination, mapping, middle, to));
+        }
+    }
+
 }
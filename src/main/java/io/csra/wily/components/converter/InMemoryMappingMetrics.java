@@ -0,0 +1,172 @@
+package io.csra.wily.components.converter;
+
+import io.csra.wily.components.model.MappingStatisticsDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps mapping timings in memory, one set of counters per mapping, for {@link #getHotMappings(int)} to rank by total
+ * time. Recording is lock-free. Latencies go into a log-scale histogram with four buckets per power of two, one for map()
+ * calls and one for whole mapList() calls, so percentiles come out within about an eighth of the true value without
+ * keeping individual samples.
+ */
+public class InMemoryMappingMetrics implements MappingMetricsSink {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = SUB_BUCKETS * 63;
+
+    private final ConcurrentMap<MappingKey, Recorder> recorders = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordMap(Class<?> sourceClass, Class<?> destinationClass, String mapId, long nanos) {
+        recorder(sourceClass, destinationClass, mapId).record(nanos, 1, false);
+    }
+
+    @Override
+    public void recordList(Class<?> sourceClass, Class<?> destinationClass, String mapId, long nanos, int size) {
+        recorder(sourceClass, destinationClass, mapId).record(nanos, size, true);
+    }
+
+    /**
+     * @return statistics for every mapping recorded so far, most total time first
+     */
+    public List<MappingStatisticsDTO> getStatistics() {
+        List<MappingStatisticsDTO> statistics = new ArrayList<>(recorders.size());
+        for (Map.Entry<MappingKey, Recorder> entry : recorders.entrySet()) {
+            statistics.add(entry.getValue().snapshot(entry.getKey()));
+        }
+
+        statistics.sort(Comparator.comparingLong(MappingStatisticsDTO::getTotalNanos).reversed());
+        return statistics;
+    }
+
+    /**
+     * @return the mappings that have taken the most time in total, at most limit of them
+     */
+    public List<MappingStatisticsDTO> getHotMappings(int limit) {
+        List<MappingStatisticsDTO> statistics = getStatistics();
+        return statistics.size() <= limit ? statistics : new ArrayList<>(statistics.subList(0, limit));
+    }
+
+    public void reset() {
+        recorders.clear();
+    }
+
+    private Recorder recorder(Class<?> sourceClass, Class<?> destinationClass, String mapId) {
+        MappingKey key = new MappingKey(sourceClass, destinationClass, mapId);
+        Recorder recorder = recorders.get(key);
+        return recorder != null ? recorder : recorders.computeIfAbsent(key, k -> new Recorder());
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (exponent - 1) + subBucket;
+    }
+
+    /**
+     * @return the middle of the range of latencies that fall into the bucket
+     */
+    static double bucketValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long width = 1L << (exponent - 2);
+        long lower = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return lower + width / 2d;
+    }
+
+    private static final class Recorder {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder listCalls = new LongAdder();
+        private final LongAdder items = new LongAdder();
+        private final LongAccumulator maxListSize = new LongAccumulator(Math::max, 0);
+        // A whole list takes far longer than one object, so the two kinds of call keep separate latencies
+        private final Latencies mapLatencies = new Latencies();
+        private final Latencies listLatencies = new Latencies();
+
+        void record(long nanos, int size, boolean list) {
+            if (list) {
+                listCalls.increment();
+                maxListSize.accumulate(size);
+                listLatencies.record(nanos);
+            } else {
+                calls.increment();
+                mapLatencies.record(nanos);
+            }
+            items.add(size);
+        }
+
+        MappingStatisticsDTO snapshot(MappingKey key) {
+            MappingStatisticsDTO statistics = new MappingStatisticsDTO();
+            statistics.setSourceClass(key.getSourceClass().getName());
+            statistics.setDestinationClass(key.getDestinationClass().getName());
+            statistics.setMapId(key.getMapId());
+            statistics.setCalls(calls.sum());
+            statistics.setListCalls(listCalls.sum());
+            statistics.setItems(items.sum());
+            statistics.setMaxListSize(maxListSize.get());
+            statistics.setTotalNanos(mapLatencies.totalNanos.sum() + listLatencies.totalNanos.sum());
+
+            statistics.setP50Micros(mapLatencies.percentileMicros(0.50));
+            statistics.setP95Micros(mapLatencies.percentileMicros(0.95));
+            statistics.setP99Micros(mapLatencies.percentileMicros(0.99));
+            statistics.setMaxMicros(mapLatencies.maxNanos.get() / 1000d);
+
+            statistics.setListP50Micros(listLatencies.percentileMicros(0.50));
+            statistics.setListP95Micros(listLatencies.percentileMicros(0.95));
+            statistics.setListP99Micros(listLatencies.percentileMicros(0.99));
+            statistics.setListMaxMicros(listLatencies.maxNanos.get() / 1000d);
+            return statistics;
+        }
+    }
+
+    private static final class Latencies {
+
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            histogram.incrementAndGet(bucket(nanos));
+        }
+
+        double percentileMicros(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram.get(i);
+                total += counts[i];
+            }
+
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return bucketValue(i) / 1000d;
+                }
+            }
+
+            return 0;
+        }
+    }
+
+}
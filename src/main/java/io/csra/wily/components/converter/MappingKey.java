@@ -0,0 +1,57 @@
+package io.csra.wily.components.converter;
+
+import java.util.Objects;
+
+/**
+ * A mapping DozerMapperPlus performs: source class, destination class and the optional map id.
+ */
+final class MappingKey {
+
+    private final Class<?> sourceClass;
+    private final Class<?> destinationClass;
+    private final String mapId;
+    private final int hash;
+
+    MappingKey(Class<?> sourceClass, Class<?> destinationClass, String mapId) {
+        this.sourceClass = sourceClass;
+        this.destinationClass = destinationClass;
+        this.mapId = mapId;
+        this.hash = 31 * (31 * sourceClass.hashCode() + destinationClass.hashCode()) + Objects.hashCode(mapId);
+    }
+
+    Class<?> getSourceClass() {
+        return sourceClass;
+    }
+
+    Class<?> getDestinationClass() {
+        return destinationClass;
+    }
+
+    String getMapId() {
+        return mapId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MappingKey)) {
+            return false;
+        }
+
+        MappingKey other = (MappingKey) o;
+        return sourceClass == other.sourceClass && destinationClass == other.destinationClass && Objects.equals(mapId, other.mapId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return sourceClass.getName() + " -> " + destinationClass.getName() + (mapId == null ? "" : " (" + mapId + ")");
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.csra.wily.components.converter;
+
+/**
+ * Receives a timing for every call DozerMapperPlus makes while a sink is set. Implementations are called on the
+ * mapping thread, so they should only update counters; {@link InMemoryMappingMetrics} is the built-in one, and
+ * forwarding to a metrics library such as Micrometer takes a timer and a distribution summary per mapping.
+ */
+public interface MappingMetricsSink {
+
+    /**
+     * A single object mapped by map().
+     *
+     * @param mapId map id the caller gave, or null
+     */
+    void recordMap(Class<?> sourceClass, Class<?> destinationClass, String mapId, long nanos);
+
+    /**
+     * A whole list mapped by mapList(). sourceClass is the class of the first item, or Object when the list is empty.
+     */
+    void recordList(Class<?> sourceClass, Class<?> destinationClass, String mapId, long nanos, int size);
+}
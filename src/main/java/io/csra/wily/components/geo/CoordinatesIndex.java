@@ -0,0 +1,434 @@
+package io.csra.wily.components.geo;
+
+import io.csra.wily.components.model.CoordinatesDTO;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable in-memory spatial index over a set of coordinates, answering "k nearest" and "within radius" queries
+ * without scanning every point.
+ *
+ * Points are kept in an implicit KD-tree laid out in two primitive arrays of degrees (plus the point's original
+ * position), alternating latitude and longitude splits. Queries walk the tree and skip any subtree whose bounding box
+ * cannot contain a closer point than the ones already found, using a lower bound on the Haversine term that holds across
+ * the poles and the antimeridian. Exact Haversine is only computed for points in the leaves that survive pruning.
+ *
+ * Results are the positions of the matching points in the list or arrays the index was built from, nearest first.
+ * Distances follow the same spherical model as {@link io.csra.wily.components.service.AddressService#distanceBetween}.
+ */
+public class CoordinatesIndex {
+
+    private static final double MEAN_RADIUS_OF_EARTH_IN_MILES = 3959;
+    private static final int LEAF_SIZE = 8;
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 1;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] ids;
+
+    /**
+     * @param latitudes latitude of each point, in degrees
+     * @param longitudes longitude of each point, in degrees; must be the same length as latitudes
+     */
+    public CoordinatesIndex(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must be the same length");
+        }
+
+        this.latitudes = latitudes.clone();
+        this.longitudes = new double[longitudes.length];
+        this.ids = new int[latitudes.length];
+        for (int i = 0; i < ids.length; i++) {
+            this.longitudes[i] = normalizeLongitude(longitudes[i]);
+            ids[i] = i;
+        }
+
+        build(0, ids.length, LATITUDE);
+    }
+
+    public static CoordinatesIndex of(List<CoordinatesDTO> coordinates) {
+        double[] latitudes = new double[coordinates.size()];
+        double[] longitudes = new double[coordinates.size()];
+
+        int i = 0;
+        for (CoordinatesDTO coordinate : coordinates) {
+            latitudes[i] = coordinate.getLatitude();
+            longitudes[i++] = coordinate.getLongitude();
+        }
+
+        return new CoordinatesIndex(latitudes, longitudes);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int[] nearest(CoordinatesDTO origin, int k) {
+        return nearest(origin.getLatitude(), origin.getLongitude(), k);
+    }
+
+    /**
+     * @param latitude latitude of the query point, in degrees
+     * @param longitude longitude of the query point, in degrees
+     * @param k number of neighbours wanted
+     * @return positions of the (up to) k closest points, nearest first
+     */
+    public int[] nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || ids.length == 0) {
+            return new int[0];
+        }
+
+        NearestSearch search = new NearestSearch(latitude, longitude, Math.min(k, ids.length));
+        search.visit(0, ids.length, LATITUDE, -90, 90, -180, 180);
+        return search.results();
+    }
+
+    public int[] withinRadius(CoordinatesDTO origin, double radiusInMiles) {
+        return withinRadius(origin.getLatitude(), origin.getLongitude(), radiusInMiles);
+    }
+
+    /**
+     * @param latitude latitude of the query point, in degrees
+     * @param longitude longitude of the query point, in degrees
+     * @param radiusInMiles search radius
+     * @return positions of every point within the radius, nearest first
+     */
+    public int[] withinRadius(double latitude, double longitude, double radiusInMiles) {
+        if (radiusInMiles < 0 || ids.length == 0) {
+            return new int[0];
+        }
+
+        double halfAngle = Math.min(Math.PI / 2, radiusInMiles / MEAN_RADIUS_OF_EARTH_IN_MILES / 2);
+        double threshold = Math.sin(halfAngle) * Math.sin(halfAngle);
+
+        RadiusSearch search = new RadiusSearch(latitude, longitude, threshold);
+        search.visit(0, ids.length, LATITUDE, -90, 90, -180, 180);
+        return search.results();
+    }
+
+    /**
+     * Brings a longitude into [-180, 180), so that 185 and -175 land in the same place in the tree.
+     */
+    private static double normalizeLongitude(double longitude) {
+        if (longitude >= -180 && longitude < 180) {
+            return longitude;
+        }
+
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private double coordinate(int position, int axis) {
+        return axis == LATITUDE ? latitudes[position] : longitudes[position];
+    }
+
+    /**
+     * Recursively partitions [lo, hi) around its median on the given axis until ranges fit in a leaf.
+     */
+    private void build(int lo, int hi, int axis) {
+        while (hi - lo > LEAF_SIZE) {
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, axis);
+            build(lo, mid, 1 - axis);
+
+            lo = mid + 1;
+            axis = 1 - axis;
+        }
+    }
+
+    /**
+     * Quickselect: reorders [left, right] so the element at k is the one that would be there if sorted on the axis,
+     * with nothing greater before it and nothing smaller after it.
+     */
+    private void select(int left, int right, int k, int axis) {
+        while (right > left) {
+            int mid = (left + right) >>> 1;
+            if (coordinate(mid, axis) < coordinate(left, axis)) {
+                swap(mid, left);
+            }
+            if (coordinate(right, axis) < coordinate(left, axis)) {
+                swap(right, left);
+            }
+            if (coordinate(right, axis) < coordinate(mid, axis)) {
+                swap(right, mid);
+            }
+
+            double pivot = coordinate(mid, axis);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinate(i, axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(j, axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double latitude = latitudes[a];
+        latitudes[a] = latitudes[b];
+        latitudes[b] = latitude;
+
+        double longitude = longitudes[a];
+        longitudes[a] = longitudes[b];
+        longitudes[b] = longitude;
+
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+    }
+
+    /**
+     * Tree walk shared by both query types. Candidates are compared on the Haversine term
+     * sin²(Δφ/2) + cos φ1 cos φ2 sin²(Δλ/2), which orders points the same way as distance without the asin/sqrt.
+     */
+    private abstract class Search {
+
+        private final double latitude;
+        private final double longitude;
+        private final double cosLatitude;
+
+        Search(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = normalizeLongitude(longitude);
+            this.cosLatitude = Math.cos(Math.toRadians(latitude));
+        }
+
+        abstract double bound();
+
+        abstract void offer(int position, double haversine);
+
+        void visit(int lo, int hi, int axis, double latMin, double latMax, double lonMin, double lonMax) {
+            if (lowerBound(latMin, latMax, lonMin, lonMax) > bound()) {
+                return;
+            }
+
+            if (hi - lo <= LEAF_SIZE) {
+                for (int i = lo; i < hi; i++) {
+                    offer(i);
+                }
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            double split = coordinate(mid, axis);
+            offer(mid);
+
+            boolean queryOnLeft = (axis == LATITUDE ? latitude : longitude) <= split;
+            if (axis == LATITUDE) {
+                if (queryOnLeft) {
+                    visit(lo, mid, LONGITUDE, latMin, split, lonMin, lonMax);
+                    visit(mid + 1, hi, LONGITUDE, split, latMax, lonMin, lonMax);
+                } else {
+                    visit(mid + 1, hi, LONGITUDE, split, latMax, lonMin, lonMax);
+                    visit(lo, mid, LONGITUDE, latMin, split, lonMin, lonMax);
+                }
+            } else {
+                if (queryOnLeft) {
+                    visit(lo, mid, LATITUDE, latMin, latMax, lonMin, split);
+                    visit(mid + 1, hi, LATITUDE, latMin, latMax, split, lonMax);
+                } else {
+                    visit(mid + 1, hi, LATITUDE, latMin, latMax, split, lonMax);
+                    visit(lo, mid, LATITUDE, latMin, latMax, lonMin, split);
+                }
+            }
+        }
+
+        private void offer(int position) {
+            double haversine = haversine(latitudes[position], longitudes[position]);
+            if (haversine <= bound()) {
+                offer(position, haversine);
+            }
+        }
+
+        private double haversine(double pointLatitude, double pointLongitude) {
+            double sinLat = Math.sin(Math.toRadians(pointLatitude - latitude) / 2);
+            double sinLon = Math.sin(Math.toRadians(pointLongitude - longitude) / 2);
+            return sinLat * sinLat + cosLatitude * Math.cos(Math.toRadians(pointLatitude)) * sinLon * sinLon;
+        }
+
+        /**
+         * Smallest Haversine term any point inside the box could have. Each term of the formula is bounded separately:
+         * the latitude gap to the box, the smallest cosine of latitude within it, and the shortest way around to its
+         * longitude range.
+         */
+        private double lowerBound(double latMin, double latMax, double lonMin, double lonMax) {
+            double latGap = latitude < latMin ? latMin - latitude : (latitude > latMax ? latitude - latMax : 0);
+
+            double lonGap = 0;
+            if (longitude < lonMin || longitude > lonMax) {
+                lonGap = Math.min(angularDifference(longitude, lonMin), angularDifference(longitude, lonMax));
+            }
+
+            double sinLat = Math.sin(Math.toRadians(latGap) / 2);
+            double sinLon = Math.sin(Math.toRadians(lonGap) / 2);
+            double cosMin = Math.max(0, Math.min(Math.cos(Math.toRadians(latMin)), Math.cos(Math.toRadians(latMax))));
+
+            return sinLat * sinLat + cosLatitude * cosMin * sinLon * sinLon;
+        }
+
+        private double angularDifference(double a, double b) {
+            double difference = Math.abs(a - b) % 360;
+            return difference > 180 ? 360 - difference : difference;
+        }
+    }
+
+    /**
+     * Keeps the k best candidates in a bounded max-heap, so the current k-th distance is always at the root.
+     */
+    private class NearestSearch extends Search {
+
+        private final double[] heapValues;
+        private final int[] heapPositions;
+        private int count;
+
+        NearestSearch(double latitude, double longitude, int k) {
+            super(latitude, longitude);
+            this.heapValues = new double[k];
+            this.heapPositions = new int[k];
+        }
+
+        @Override
+        double bound() {
+            return count < heapValues.length ? Double.POSITIVE_INFINITY : heapValues[0];
+        }
+
+        @Override
+        void offer(int position, double haversine) {
+            if (count < heapValues.length) {
+                int i = count++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (heapValues[parent] >= haversine) {
+                        break;
+                    }
+                    heapValues[i] = heapValues[parent];
+                    heapPositions[i] = heapPositions[parent];
+                    i = parent;
+                }
+                heapValues[i] = haversine;
+                heapPositions[i] = position;
+            } else if (haversine < heapValues[0]) {
+                siftDown(haversine, position, count);
+            }
+        }
+
+        int[] results() {
+            int[] results = new int[count];
+            for (int n = count; n > 0; n--) {
+                results[n - 1] = ids[heapPositions[0]];
+                siftDown(heapValues[n - 1], heapPositions[n - 1], n - 1);
+            }
+
+            return results;
+        }
+
+        private void siftDown(double value, int position, int size) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heapValues[child + 1] > heapValues[child]) {
+                    child++;
+                }
+                if (heapValues[child] <= value) {
+                    break;
+                }
+                heapValues[i] = heapValues[child];
+                heapPositions[i] = heapPositions[child];
+                i = child;
+            }
+            heapValues[i] = value;
+            heapPositions[i] = position;
+        }
+    }
+
+    private class RadiusSearch extends Search {
+
+        private final double threshold;
+        private double[] values = new double[16];
+        private int[] positions = new int[16];
+        private int count;
+
+        RadiusSearch(double latitude, double longitude, double threshold) {
+            super(latitude, longitude);
+            this.threshold = threshold;
+        }
+
+        @Override
+        double bound() {
+            return threshold;
+        }
+
+        @Override
+        void offer(int position, double haversine) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            values[count] = haversine;
+            positions[count++] = position;
+        }
+
+        int[] results() {
+            sort(0, count - 1);
+
+            int[] results = new int[count];
+            for (int i = 0; i < count; i++) {
+                results[i] = ids[positions[i]];
+            }
+
+            return results;
+        }
+
+        private void sort(int left, int right) {
+            while (right > left) {
+                double pivot = values[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (values[i] < pivot) {
+                        i++;
+                    }
+                    while (values[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        double value = values[i];
+                        values[i] = values[j];
+                        values[j] = value;
+                        int position = positions[i];
+                        positions[i++] = positions[j];
+                        positions[j--] = position;
+                    }
+                }
+
+                if (j - left < right - i) {
+                    sort(left, j);
+                    left = i;
+                } else {
+                    sort(i, right);
+                    right = j;
+                }
+            }
+        }
+    }
+
+}
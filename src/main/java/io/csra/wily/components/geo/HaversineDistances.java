@@ -0,0 +1,192 @@
+package io.csra.wily.components.geo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk great-circle distances, in miles, on the same spherical model as
+ * {@link io.csra.wily.components.service.AddressService#distanceBetween}.
+ *
+ * Each point's half-angle sines and cosines are computed once in {@link PreparedCoordinates}; the sine of each half
+ * difference is then recovered with the angle-subtraction identity, so the per-pair cost is a handful of multiplies, a
+ * square root and an arcsine. Results are written into caller-supplied arrays and nothing is allocated per pair.
+ */
+public final class HaversineDistances {
+
+    private static final double MEAN_RADIUS_OF_EARTH_IN_MILES = 3959;
+
+    /**
+     * Below this many pairs a matrix is computed on the calling thread; splitting smaller jobs costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private HaversineDistances() {
+    }
+
+    /**
+     * @param latitudes latitude of each point, in degrees
+     * @param longitudes longitude of each point, in degrees; must be the same length as latitudes
+     * @return the points, ready for bulk distance calculations
+     */
+    public static PreparedCoordinates prepare(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays must be the same length");
+        }
+
+        return new PreparedCoordinates(latitudes, longitudes);
+    }
+
+    /**
+     * Distance from one point to every point in {@code to}.
+     *
+     * @param latitude latitude of the origin, in degrees
+     * @param longitude longitude of the origin, in degrees
+     * @param to destinations
+     * @param out receives the distance to destination i at index i; must hold at least to.size() values
+     */
+    public static void oneToMany(double latitude, double longitude, PreparedCoordinates to, double[] out) {
+        checkCapacity(out, to.size());
+
+        PreparedCoordinates from = prepare(new double[]{latitude}, new double[]{longitude});
+        row(from, 0, to, 0, to.size(), out, 0);
+    }
+
+    /**
+     * Distance from every point in {@code from} to every point in {@code to}, on the calling thread.
+     *
+     * @param from origins
+     * @param to destinations
+     * @param out receives the distance from origin i to destination j at index {@code i * to.size() + j}
+     */
+    public static void manyToMany(PreparedCoordinates from, PreparedCoordinates to, double[] out) {
+        checkCapacity(out, (long) from.size() * to.size());
+
+        for (int i = 0; i < from.size(); i++) {
+            row(from, i, to, 0, to.size(), out, i * to.size());
+        }
+    }
+
+    /**
+     * {@link #manyToMany} spread across the common fork-join pool.
+     */
+    public static void manyToManyParallel(PreparedCoordinates from, PreparedCoordinates to, double[] out) {
+        manyToManyParallel(from, to, out, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@link #manyToMany} spread across the given fork-join pool. Each task works on a contiguous block of the output,
+     * so results are identical to the sequential version.
+     */
+    public static void manyToManyParallel(PreparedCoordinates from, PreparedCoordinates to, double[] out, ForkJoinPool pool) {
+        long pairs = (long) from.size() * to.size();
+        checkCapacity(out, pairs);
+
+        if (pairs < PARALLEL_THRESHOLD) {
+            manyToMany(from, to, out);
+            return;
+        }
+
+        if (from.size() == 1) {
+            pool.invoke(new ColumnTask(from, to, out, 0, to.size()));
+        } else {
+            pool.invoke(new RowTask(from, to, out, 0, from.size()));
+        }
+    }
+
+    /**
+     * Distances from origin {@code i} to destinations [start, end), written to out starting at offset + start.
+     */
+    private static void row(PreparedCoordinates from, int i, PreparedCoordinates to, int start, int end, double[] out, int offset) {
+        double sinHalfLatitude = from.sinHalfLatitude[i];
+        double cosHalfLatitude = from.cosHalfLatitude[i];
+        double sinHalfLongitude = from.sinHalfLongitude[i];
+        double cosHalfLongitude = from.cosHalfLongitude[i];
+        double cosLatitude = from.cosLatitude[i];
+
+        double[] toSinHalfLatitude = to.sinHalfLatitude;
+        double[] toCosHalfLatitude = to.cosHalfLatitude;
+        double[] toSinHalfLongitude = to.sinHalfLongitude;
+        double[] toCosHalfLongitude = to.cosHalfLongitude;
+        double[] toCosLatitude = to.cosLatitude;
+
+        for (int j = start; j < end; j++) {
+            // sin((a - b) / 2) = sin(a/2)cos(b/2) - cos(a/2)sin(b/2)
+            double sinLatitudeDifference = sinHalfLatitude * toCosHalfLatitude[j] - cosHalfLatitude * toSinHalfLatitude[j];
+            double sinLongitudeDifference = sinHalfLongitude * toCosHalfLongitude[j] - cosHalfLongitude * toSinHalfLongitude[j];
+
+            double haversine = sinLatitudeDifference * sinLatitudeDifference
+                    + cosLatitude * toCosLatitude[j] * sinLongitudeDifference * sinLongitudeDifference;
+
+            out[offset + j] = 2 * MEAN_RADIUS_OF_EARTH_IN_MILES * Math.asin(Math.sqrt(Math.min(1, haversine)));
+        }
+    }
+
+    private static void checkCapacity(double[] out, long required) {
+        if (out.length < required) {
+            throw new IllegalArgumentException("Output array holds " + out.length + " values but " + required + " are required");
+        }
+    }
+
+    private static class RowTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PreparedCoordinates from;
+        private final PreparedCoordinates to;
+        private final double[] out;
+        private final int start;
+        private final int end;
+
+        RowTask(PreparedCoordinates from, PreparedCoordinates to, double[] out, int start, int end) {
+            this.from = from;
+            this.to = to;
+            this.out = out;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start == 1 || (long) (end - start) * to.size() < PARALLEL_THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    row(from, i, to, 0, to.size(), out, i * to.size());
+                }
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new RowTask(from, to, out, start, mid), new RowTask(from, to, out, mid, end));
+        }
+    }
+
+    private static class ColumnTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PreparedCoordinates from;
+        private final PreparedCoordinates to;
+        private final double[] out;
+        private final int start;
+        private final int end;
+
+        ColumnTask(PreparedCoordinates from, PreparedCoordinates to, double[] out, int start, int end) {
+            this.from = from;
+            this.to = to;
+            this.out = out;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start < PARALLEL_THRESHOLD) {
+                row(from, 0, to, start, end, out, 0);
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new ColumnTask(from, to, out, start, mid), new ColumnTask(from, to, out, mid, end));
+        }
+    }
+
+}
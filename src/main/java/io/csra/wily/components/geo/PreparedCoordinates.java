@@ -0,0 +1,39 @@
+package io.csra.wily.components.geo;
+
+/**
+ * A set of points in structure-of-arrays form, with the trigonometry {@link HaversineDistances} needs computed once per
+ * point instead of once per pair. Build with {@link HaversineDistances#prepare(double[], double[])}.
+ */
+public final class PreparedCoordinates {
+
+    final double[] sinHalfLatitude;
+    final double[] cosHalfLatitude;
+    final double[] sinHalfLongitude;
+    final double[] cosHalfLongitude;
+    final double[] cosLatitude;
+
+    PreparedCoordinates(double[] latitudes, double[] longitudes) {
+        int size = latitudes.length;
+        sinHalfLatitude = new double[size];
+        cosHalfLatitude = new double[size];
+        sinHalfLongitude = new double[size];
+        cosHalfLongitude = new double[size];
+        cosLatitude = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            double latitude = Math.toRadians(latitudes[i]);
+            double longitude = Math.toRadians(longitudes[i]);
+
+            sinHalfLatitude[i] = Math.sin(latitude / 2);
+            cosHalfLatitude[i] = Math.cos(latitude / 2);
+            sinHalfLongitude[i] = Math.sin(longitude / 2);
+            cosHalfLongitude[i] = Math.cos(longitude / 2);
+            cosLatitude[i] = Math.cos(latitude);
+        }
+    }
+
+    public int size() {
+        return cosLatitude.length;
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.csra.wily.components.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC-4180 reader. Handles quoted fields containing delimiters, doubled quotes and line breaks, and accepts
+ * CRLF, LF or CR line endings. Any delimiter can be used, so the same reader handles TSV.
+ */
+public class CsvReader implements RowReader {
+
+    private static final int EOF = -1;
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+    private final char delimiter;
+
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    public CsvReader(Reader reader) {
+        this(reader, ',');
+    }
+
+    public CsvReader(Reader reader, char delimiter) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+
+        fields.clear();
+        while (true) {
+            field.setLength(0);
+
+            if (c == QUOTE) {
+                c = readQuoted();
+            }
+
+            while (c != EOF && c != delimiter && c != '\n' && c != '\r') {
+                field.append((char) c);
+                c = read();
+            }
+
+            fields.add(field.toString());
+
+            if (c == delimiter) {
+                c = read();
+            } else {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                return fields.toArray(new String[0]);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the body of a quoted field into the field buffer.
+     *
+     * @return the first character after the closing quote
+     */
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                throw new IOException("Unterminated quoted field");
+            }
+
+            if (c == QUOTE) {
+                c = read();
+                if (c != QUOTE) {
+                    return c;
+                }
+            }
+
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+}
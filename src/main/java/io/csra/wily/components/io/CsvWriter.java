@@ -0,0 +1,207 @@
+package io.csra.wily.components.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming RFC-4180 writer. Fields are only quoted when they contain the delimiter, a quote or a line break, and
+ * records end with CRLF.
+ *
+ * Output is collected in a reusable char buffer and handed to the underlying writer a buffer at a time, so wrapping
+ * the writer in a BufferedWriter is unnecessary. Numbers can be written without creating a String for them.
+ */
+public class CsvWriter implements Closeable, Flushable {
+
+    private static final char QUOTE = '"';
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Long.MIN_VALUE is the longest value: a sign and 19 digits.
+     */
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private final Writer writer;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer writer) {
+        this(writer, ',');
+    }
+
+    public CsvWriter(Writer writer, char delimiter) {
+        this.writer = writer;
+        this.delimiter = delimiter;
+    }
+
+    public void writeRecord(String... values) throws IOException {
+        for (String value : values) {
+            writeField(value);
+        }
+        endRecord();
+    }
+
+    /**
+     * Appends a field to the current record. Null is written as an empty field.
+     */
+    public void writeField(String value) throws IOException {
+        startField();
+
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        if (!requiresQuoting(value)) {
+            append(value, 0, value.length());
+            return;
+        }
+
+        append(QUOTE);
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == QUOTE) {
+                append(value, start, i + 1);
+                append(QUOTE);
+                start = i + 1;
+            }
+        }
+        append(value, start, value.length());
+        append(QUOTE);
+    }
+
+    /**
+     * Appends a whole number to the current record, formatted as {@link Long#toString(long)} would.
+     */
+    public void writeField(long value) throws IOException {
+        startField();
+
+        if (value == Long.MIN_VALUE) {
+            String text = Long.toString(value);
+            append(text, 0, text.length());
+            return;
+        }
+
+        ensureCapacity(MAX_LONG_LENGTH);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int end = position + digits(value);
+        int i = end;
+        do {
+            buffer[--i] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        position = end;
+    }
+
+    /**
+     * Appends a single character field, quoting it if necessary.
+     */
+    public void writeField(char value) throws IOException {
+        startField();
+
+        if (value == QUOTE) {
+            append(QUOTE);
+            append(QUOTE);
+            append(QUOTE);
+            append(QUOTE);
+        } else if (value == delimiter || value == '\n' || value == '\r') {
+            append(QUOTE);
+            append(value);
+            append(QUOTE);
+        } else {
+            append(value);
+        }
+    }
+
+    public void endRecord() throws IOException {
+        append('\r');
+        append('\n');
+        firstField = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void startField() throws IOException {
+        if (!firstField) {
+            append(delimiter);
+        }
+        firstField = false;
+    }
+
+    private void append(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = c;
+    }
+
+    /**
+     * Appends value[start, end) to the buffer, draining it as often as needed.
+     */
+    private void append(String value, int start, int end) throws IOException {
+        while (start < end) {
+            if (position == buffer.length) {
+                drain();
+            }
+
+            int count = Math.min(end - start, buffer.length - position);
+            value.getChars(start, start + count, buffer, position);
+            position += count;
+            start += count;
+        }
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (buffer.length - position < length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            writer.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+
+        return digits;
+    }
+
+    private boolean requiresQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+}
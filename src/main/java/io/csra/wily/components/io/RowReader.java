@@ -0,0 +1,17 @@
+package io.csra.wily.components.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style reader over a tabular file, one row at a time, so callers never need the whole file in memory.
+ */
+public interface RowReader extends Closeable {
+
+    /**
+     * @return the cells of the next row, or null once the input is exhausted
+     * @throws IOException if the input cannot be read or parsed
+     */
+    String[] readRow() throws IOException;
+
+}
@@ -0,0 +1,173 @@
+package io.csra.wily.components.io;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams the rows of the first sheet of an .xlsx workbook without building the POI object model. The sheet XML is
+ * parsed with SAX on a background thread that hands rows over through a small bounded queue, so the parser can never
+ * run more than a few rows ahead of the consumer.
+ *
+ * The workbook is spooled to a temporary file first, because a zip package cannot be read from a forward-only stream.
+ */
+public class XlsxRowReader implements RowReader {
+
+    private static final String[] END_OF_SHEET = new String[0];
+    private static final int QUEUE_CAPACITY = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final Path workbookFile;
+    private final OPCPackage workbook;
+    private final BlockingQueue<String[]> rows = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread parser;
+
+    private volatile Throwable failure;
+    private boolean finished;
+
+    public XlsxRowReader(InputStream in) throws IOException {
+        workbookFile = Files.createTempFile("xlsx-row-reader", ".xlsx");
+        try {
+            Files.copy(in, workbookFile, StandardCopyOption.REPLACE_EXISTING);
+            workbook = OPCPackage.open(workbookFile.toFile(), PackageAccess.READ);
+        } catch (IOException | OpenXML4JException | RuntimeException e) {
+            Files.deleteIfExists(workbookFile);
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+
+        parser = new Thread(this::parseFirstSheet, "xlsx-row-reader");
+        parser.setDaemon(true);
+        parser.start();
+    }
+
+    @Override
+    public String[] readRow() throws IOException {
+        if (finished) {
+            return null;
+        }
+
+        String[] row;
+        try {
+            row = rows.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading workbook", e);
+        }
+
+        if (row == END_OF_SHEET) {
+            finished = true;
+            if (failure != null) {
+                throw new IOException("Unable to read workbook", failure);
+            }
+            return null;
+        }
+
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.interrupt();
+        try {
+            // The parser may still be reading the package, which must not be reverted underneath it
+            parser.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            workbook.revert();
+        } finally {
+            Files.deleteIfExists(workbookFile);
+        }
+    }
+
+    private void parseFirstSheet() {
+        try {
+            XSSFReader reader = new XSSFReader(workbook);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    SAXParserFactory factory = SAXParserFactory.newInstance();
+                    factory.setNamespaceAware(true);
+                    XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                            new ReadOnlySharedStringsTable(workbook), new RowCollector(), new DataFormatter(), false));
+                    xmlReader.parse(new InputSource(sheet));
+                }
+            }
+        } catch (Throwable t) {
+            // Any failure, including an Error such as running out of memory, must reach readRow rather than look like
+            // the end of the sheet
+            if (!(t instanceof ParseInterruptedException)) {
+                failure = t;
+            }
+        } finally {
+            if (!Thread.currentThread().isInterrupted()) {
+                enqueue(END_OF_SHEET);
+            }
+        }
+    }
+
+    private void enqueue(String[] row) {
+        try {
+            rows.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseInterruptedException();
+        }
+    }
+
+    private class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final List<String> cells = new ArrayList<>();
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            enqueue(cells.toArray(new String[0]));
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(formattedValue);
+        }
+    }
+
+    /**
+     * Unwinds the SAX parse once the reader has been closed.
+     */
+    private static class ParseInterruptedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+}
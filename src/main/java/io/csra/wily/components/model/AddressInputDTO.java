@@ -43,6 +43,46 @@ public class AddressInputDTO {
 		return true;
 	}
 
+	/**
+	 * Builds a key that identifies this address regardless of case, surrounding whitespace or the caller's inputId. Two
+	 * inputs that produce the same key will produce the same SmartyStreets lookup.
+	 *
+	 * @return normalized key for this address
+	 */
+	public String toNormalizedKey() {
+		StringBuilder sb = new StringBuilder(128);
+		appendNormalized(sb, getStreet());
+		appendNormalized(sb, getStreet2());
+		appendNormalized(sb, getSecondary());
+		appendNormalized(sb, getCity());
+		appendNormalized(sb, getState());
+		appendNormalized(sb, getZipcode());
+		appendNormalized(sb, getLastline());
+		appendNormalized(sb, getAddressee());
+
+		return sb.toString();
+	}
+
+	private void appendNormalized(StringBuilder sb, String value) {
+		if (value != null) {
+			boolean pendingSpace = false;
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (Character.isWhitespace(c)) {
+					pendingSpace = true;
+				} else {
+					if (pendingSpace && sb.length() > 0 && sb.charAt(sb.length() - 1) != '|') {
+						sb.append(' ');
+					}
+					pendingSpace = false;
+					sb.append(Character.toUpperCase(c));
+				}
+			}
+		}
+
+		sb.append('|');
+	}
+
 	public String getInputId() {
 		return inputId;
 	}
@@ -1,10 +1,17 @@
 package io.csra.wily.components.model;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 
-public class AddressResultDTO {
+public class AddressResultDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	private static final int NO_MATCH = 0;
 	private static final int PERFECT_MATCH = 1;
@@ -30,6 +37,45 @@ public class AddressResultDTO {
 
 	private int match;
 	private List<String> matchNotes;
+	private Set<SmartyStreetsCode> matchCodes;
+
+	public AddressResultDTO() {
+
+	}
+
+	/**
+	 * Copy constructor, used to hand out independent copies of cached results.
+	 *
+	 * @param other result to copy
+	 */
+	public AddressResultDTO(AddressResultDTO other) {
+		this.inputId = other.inputId;
+		this.addressee = other.addressee;
+		this.line1 = other.line1;
+		this.line2 = other.line2;
+		this.city = other.city;
+		this.state = other.state;
+		this.zipcode = other.zipcode;
+		this.zip4 = other.zip4;
+		this.urbanization = other.urbanization;
+		this.addressType = other.addressType;
+		this.countyFipsCode = other.countyFipsCode;
+		this.countyName = other.countyName;
+		this.postnetBarcode = other.postnetBarcode;
+		this.match = other.match;
+
+		if (other.coordinates != null) {
+			this.coordinates = new CoordinatesDTO(other.coordinates.getLatitude(), other.coordinates.getLongitude());
+		}
+
+		if (other.matchNotes != null) {
+			this.matchNotes = new ArrayList<>(other.matchNotes);
+		}
+
+		if (other.matchCodes != null) {
+			this.matchCodes = other.matchCodes.isEmpty() ? EnumSet.noneOf(SmartyStreetsCode.class) : EnumSet.copyOf(other.matchCodes);
+		}
+	}
 
 	public String getAddressTypeDescription() {
 		switch (addressType) {
@@ -195,4 +241,30 @@ public class AddressResultDTO {
 	public List<String> getMatchNotes() {
 		return matchNotes;
 	}
-}
+
+	/**
+	 * @return every recognized DPV and address footnote code reported for this result; empty if there were none
+	 */
+	public Set<SmartyStreetsCode> getMatchCodes() {
+		return matchCodes == null ? Collections.<SmartyStreetsCode>emptySet() : matchCodes;
+	}
+
+	public void setMatchCodes(Set<SmartyStreetsCode> matchCodes) {
+		this.matchCodes = matchCodes;
+	}
+
+	/**
+	 * @return true if any footnote code of the given category was reported
+	 */
+	public boolean hasMatchCode(SmartyStreetsCode.Category category) {
+		if (matchCodes != null) {
+			for (SmartyStreetsCode code : matchCodes) {
+				if (code.getCategory() == category) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+}
\ No newline at end of file
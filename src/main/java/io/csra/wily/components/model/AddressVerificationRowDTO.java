@@ -0,0 +1,215 @@
+package io.csra.wily.components.model;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * One row of bulk verification output: the verified address flattened into simple columns so it can be written by the
+ * DTO exporters. Every field becomes a column, so keep constants out of this class.
+ */
+public class AddressVerificationRowDTO {
+
+	private String inputId;
+	private String addressee;
+	private String line1;
+	private String line2;
+	private String city;
+	private String state;
+	private String zipcode;
+	private String zip4;
+	private String urbanization;
+	private String countyName;
+	private String countyFipsCode;
+	private String addressType;
+	private Double latitude;
+	private Double longitude;
+	private Boolean perfectMatch;
+	private Boolean matchWithIssues;
+	private String matchNotes;
+
+	public AddressVerificationRowDTO() {
+
+	}
+
+	/**
+	 * @param inputId id of the input row
+	 * @param result verified address, or null if SmartyStreets had no candidate
+	 */
+	public AddressVerificationRowDTO(String inputId, AddressResultDTO result) {
+		this.inputId = inputId;
+
+		if (result == null) {
+			this.perfectMatch = Boolean.FALSE;
+			this.matchWithIssues = Boolean.FALSE;
+			return;
+		}
+
+		this.addressee = result.getAddressee();
+		this.line1 = result.getLine1();
+		this.line2 = result.getLine2();
+		this.city = result.getCity();
+		this.state = result.getState();
+		this.zipcode = result.getZipcode();
+		this.zip4 = result.getZip4();
+		this.urbanization = result.getUrbanization();
+		this.countyName = result.getCountyName();
+		this.countyFipsCode = result.getCountyFipsCode();
+		this.addressType = result.getAddressTypeDescription();
+		this.perfectMatch = result.isPerfectMatch();
+		this.matchWithIssues = result.isMatchWithIssues();
+
+		if (result.getCoordinates() != null) {
+			this.latitude = result.getCoordinates().getLatitude();
+			this.longitude = result.getCoordinates().getLongitude();
+		}
+
+		if (result.getMatchNotes() != null) {
+			StringBuilder notes = new StringBuilder();
+			for (String note : result.getMatchNotes()) {
+				if (StringUtils.isNotBlank(note)) {
+					if (notes.length() > 0) {
+						notes.append("; ");
+					}
+					notes.append(note);
+				}
+			}
+			this.matchNotes = notes.toString();
+		}
+	}
+
+	public String getInputId() {
+		return inputId;
+	}
+
+	public void setInputId(String inputId) {
+		this.inputId = inputId;
+	}
+
+	public String getAddressee() {
+		return addressee;
+	}
+
+	public void setAddressee(String addressee) {
+		this.addressee = addressee;
+	}
+
+	public String getLine1() {
+		return line1;
+	}
+
+	public void setLine1(String line1) {
+		this.line1 = line1;
+	}
+
+	public String getLine2() {
+		return line2;
+	}
+
+	public void setLine2(String line2) {
+		this.line2 = line2;
+	}
+
+	public String getCity() {
+		return city;
+	}
+
+	public void setCity(String city) {
+		this.city = city;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public void setState(String state) {
+		this.state = state;
+	}
+
+	public String getZipcode() {
+		return zipcode;
+	}
+
+	public void setZipcode(String zipcode) {
+		this.zipcode = zipcode;
+	}
+
+	public String getZip4() {
+		return zip4;
+	}
+
+	public void setZip4(String zip4) {
+		this.zip4 = zip4;
+	}
+
+	public String getUrbanization() {
+		return urbanization;
+	}
+
+	public void setUrbanization(String urbanization) {
+		this.urbanization = urbanization;
+	}
+
+	public String getCountyName() {
+		return countyName;
+	}
+
+	public void setCountyName(String countyName) {
+		this.countyName = countyName;
+	}
+
+	public String getCountyFipsCode() {
+		return countyFipsCode;
+	}
+
+	public void setCountyFipsCode(String countyFipsCode) {
+		this.countyFipsCode = countyFipsCode;
+	}
+
+	public String getAddressType() {
+		return addressType;
+	}
+
+	public void setAddressType(String addressType) {
+		this.addressType = addressType;
+	}
+
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public void setLatitude(Double latitude) {
+		this.latitude = latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	public void setLongitude(Double longitude) {
+		this.longitude = longitude;
+	}
+
+	public Boolean getPerfectMatch() {
+		return perfectMatch;
+	}
+
+	public void setPerfectMatch(Boolean perfectMatch) {
+		this.perfectMatch = perfectMatch;
+	}
+
+	public Boolean getMatchWithIssues() {
+		return matchWithIssues;
+	}
+
+	public void setMatchWithIssues(Boolean matchWithIssues) {
+		this.matchWithIssues = matchWithIssues;
+	}
+
+	public String getMatchNotes() {
+		return matchNotes;
+	}
+
+	public void setMatchNotes(String matchNotes) {
+		this.matchNotes = matchNotes;
+	}
+
+}
@@ -0,0 +1,83 @@
+package io.csra.wily.components.model;
+
+/**
+ * Point-in-time snapshot of a cache's counters.
+ */
+public class CacheStatisticsDTO {
+
+	private long hits;
+	private long negativeHits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+
+	public CacheStatisticsDTO() {
+
+	}
+
+	public CacheStatisticsDTO(long hits, long negativeHits, long misses, long evictions, long expirations) {
+		this.hits = hits;
+		this.negativeHits = negativeHits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.expirations = expirations;
+	}
+
+	public double getHitRatio() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * @return number of lookups answered from the cache, including negative hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	public void setHits(long hits) {
+		this.hits = hits;
+	}
+
+	/**
+	 * @return number of lookups answered from a cached "no candidate" entry
+	 */
+	public long getNegativeHits() {
+		return negativeHits;
+	}
+
+	public void setNegativeHits(long negativeHits) {
+		this.negativeHits = negativeHits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public void setMisses(long misses) {
+		this.misses = misses;
+	}
+
+	/**
+	 * @return number of entries removed to stay within the configured size
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public void setEvictions(long evictions) {
+		this.evictions = evictions;
+	}
+
+	/**
+	 * @return number of entries removed because their time-to-live elapsed
+	 */
+	public long getExpirations() {
+		return expirations;
+	}
+
+	public void setExpirations(long expirations) {
+		this.expirations = expirations;
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.csra.wily.components.model;
+
+import java.io.Serializable;
+
+/**
+ * Value stored by an {@link io.csra.wily.components.service.AddressVerificationCache}. A cached lookup either holds the
+ * verified result or, for addresses SmartyStreets had no candidate for, an empty (negative) entry.
+ */
+public class CachedAddressResultDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private AddressResultDTO result;
+
+	public CachedAddressResultDTO() {
+
+	}
+
+	public CachedAddressResultDTO(AddressResultDTO result) {
+		this.result = result;
+	}
+
+	public boolean isNegative() {
+		return result == null;
+	}
+
+	public AddressResultDTO getResult() {
+		return result;
+	}
+
+	public void setResult(AddressResultDTO result) {
+		this.result = result;
+	}
+
+}
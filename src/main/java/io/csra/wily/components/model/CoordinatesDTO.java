@@ -1,6 +1,10 @@
 package io.csra.wily.components.model;
 
-public class CoordinatesDTO {
+import java.io.Serializable;
+
+public class CoordinatesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private double latitude;
     private double longitude;
@@ -0,0 +1,175 @@
+package io.csra.wily.components.model;
+
+/**
+ * Accumulated timings for one DozerMapperPlus mapping (source class, destination class and map id). Calls to map() and
+ * to mapList() are counted and timed separately: the plain latencies are per map() call and the list latencies per whole
+ * mapList() call. Latencies are in microseconds and accurate to within an eighth of the value.
+ */
+public class MappingStatisticsDTO {
+
+	private String sourceClass;
+	private String destinationClass;
+	private String mapId;
+	private long calls;
+	private long listCalls;
+	private long items;
+	private long maxListSize;
+	private long totalNanos;
+	private double p50Micros;
+	private double p95Micros;
+	private double p99Micros;
+	private double maxMicros;
+	private double listP50Micros;
+	private double listP95Micros;
+	private double listP99Micros;
+	private double listMaxMicros;
+
+	public String getSourceClass() {
+		return sourceClass;
+	}
+
+	public void setSourceClass(String sourceClass) {
+		this.sourceClass = sourceClass;
+	}
+
+	public String getDestinationClass() {
+		return destinationClass;
+	}
+
+	public void setDestinationClass(String destinationClass) {
+		this.destinationClass = destinationClass;
+	}
+
+	public String getMapId() {
+		return mapId;
+	}
+
+	public void setMapId(String mapId) {
+		this.mapId = mapId;
+	}
+
+	/**
+	 * @return number of single objects mapped through map()
+	 */
+	public long getCalls() {
+		return calls;
+	}
+
+	public void setCalls(long calls) {
+		this.calls = calls;
+	}
+
+	public long getListCalls() {
+		return listCalls;
+	}
+
+	public void setListCalls(long listCalls) {
+		this.listCalls = listCalls;
+	}
+
+	/**
+	 * @return number of objects mapped, by map() and inside lists
+	 */
+	public long getItems() {
+		return items;
+	}
+
+	public void setItems(long items) {
+		this.items = items;
+	}
+
+	public long getMaxListSize() {
+		return maxListSize;
+	}
+
+	public void setMaxListSize(long maxListSize) {
+		this.maxListSize = maxListSize;
+	}
+
+	/**
+	 * @return time spent in this mapping across all calls; the mappings with the largest totals are the ones worth
+	 *         optimizing
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	public void setTotalNanos(long totalNanos) {
+		this.totalNanos = totalNanos;
+	}
+
+	public double getAverageNanosPerItem() {
+		return items == 0 ? 0 : (double) totalNanos / items;
+	}
+
+	/**
+	 * @return median latency of a single map() call
+	 */
+	public double getP50Micros() {
+		return p50Micros;
+	}
+
+	public void setP50Micros(double p50Micros) {
+		this.p50Micros = p50Micros;
+	}
+
+	public double getP95Micros() {
+		return p95Micros;
+	}
+
+	public void setP95Micros(double p95Micros) {
+		this.p95Micros = p95Micros;
+	}
+
+	public double getP99Micros() {
+		return p99Micros;
+	}
+
+	public void setP99Micros(double p99Micros) {
+		this.p99Micros = p99Micros;
+	}
+
+	public double getMaxMicros() {
+		return maxMicros;
+	}
+
+	public void setMaxMicros(double maxMicros) {
+		this.maxMicros = maxMicros;
+	}
+
+	/**
+	 * @return median latency of a whole mapList() call
+	 */
+	public double getListP50Micros() {
+		return listP50Micros;
+	}
+
+	public void setListP50Micros(double listP50Micros) {
+		this.listP50Micros = listP50Micros;
+	}
+
+	public double getListP95Micros() {
+		return listP95Micros;
+	}
+
+	public void setListP95Micros(double listP95Micros) {
+		this.listP95Micros = listP95Micros;
+	}
+
+	public double getListP99Micros() {
+		return listP99Micros;
+	}
+
+	public void setListP99Micros(double listP99Micros) {
+		this.listP99Micros = listP99Micros;
+	}
+
+	public double getListMaxMicros() {
+		return listMaxMicros;
+	}
+
+	public void setListMaxMicros(double listMaxMicros) {
+		this.listMaxMicros = listMaxMicros;
+	}
+
+}
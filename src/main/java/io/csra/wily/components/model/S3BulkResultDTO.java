@@ -0,0 +1,95 @@
+package io.csra.wily.components.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-document outcomes of a bulk S3 operation, in the order the keys were given, with totals for the whole run.
+ */
+public class S3BulkResultDTO {
+
+	private List<S3KeyResultDTO> results = new ArrayList<>();
+	private long elapsedMillis;
+
+	public S3BulkResultDTO() {
+
+	}
+
+	public S3BulkResultDTO(List<S3KeyResultDTO> results, long elapsedMillis) {
+		this.results = results;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<S3KeyResultDTO> getResults() {
+		return results;
+	}
+
+	public void setResults(List<S3KeyResultDTO> results) {
+		this.results = results;
+	}
+
+	/**
+	 * @return wall-clock time the operation took
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public int getSucceeded() {
+		int succeeded = 0;
+		for (S3KeyResultDTO result : results) {
+			if (result.isSuccessful()) {
+				succeeded++;
+			}
+		}
+
+		return succeeded;
+	}
+
+	public int getFailed() {
+		return results.size() - getSucceeded();
+	}
+
+	public List<S3KeyResultDTO> getFailures() {
+		List<S3KeyResultDTO> failures = new ArrayList<>();
+		for (S3KeyResultDTO result : results) {
+			if (!result.isSuccessful()) {
+				failures.add(result);
+			}
+		}
+
+		return failures;
+	}
+
+	/**
+	 * @return total bytes transferred by successful documents
+	 */
+	public long getBytes() {
+		long bytes = 0;
+		for (S3KeyResultDTO result : results) {
+			bytes += result.getBytes();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * @return documents handled per second, successful or not
+	 */
+	public double getKeysPerSecond() {
+		return perSecond(results.size());
+	}
+
+	public double getBytesPerSecond() {
+		return perSecond(getBytes());
+	}
+
+	private double perSecond(long count) {
+		return elapsedMillis == 0 ? 0 : count * 1000d / elapsedMillis;
+	}
+
+}
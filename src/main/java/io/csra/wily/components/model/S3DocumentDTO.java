@@ -0,0 +1,66 @@
+package io.csra.wily.components.model;
+
+/**
+ * Result of a ranged or conditional read from S3. When the document has not changed since the version the caller
+ * holds, {@link #isNotModified()} is true and there is no content; otherwise content holds the bytes read, which for a
+ * range read are bytes rangeStart to rangeEnd (inclusive) of the document.
+ */
+public class S3DocumentDTO {
+
+	private S3DocumentMetadataDTO metadata;
+	private byte[] content;
+	private boolean notModified;
+	private long rangeStart;
+	private long rangeEnd;
+
+	public S3DocumentDTO() {
+
+	}
+
+	public static S3DocumentDTO notModified() {
+		S3DocumentDTO dto = new S3DocumentDTO();
+		dto.setNotModified(true);
+		return dto;
+	}
+
+	public S3DocumentMetadataDTO getMetadata() {
+		return metadata;
+	}
+
+	public void setMetadata(S3DocumentMetadataDTO metadata) {
+		this.metadata = metadata;
+	}
+
+	public byte[] getContent() {
+		return content;
+	}
+
+	public void setContent(byte[] content) {
+		this.content = content;
+	}
+
+	public boolean isNotModified() {
+		return notModified;
+	}
+
+	public void setNotModified(boolean notModified) {
+		this.notModified = notModified;
+	}
+
+	public long getRangeStart() {
+		return rangeStart;
+	}
+
+	public void setRangeStart(long rangeStart) {
+		this.rangeStart = rangeStart;
+	}
+
+	public long getRangeEnd() {
+		return rangeEnd;
+	}
+
+	public void setRangeEnd(long rangeEnd) {
+		this.rangeEnd = rangeEnd;
+	}
+
+}
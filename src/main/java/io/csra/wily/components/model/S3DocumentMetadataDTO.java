@@ -0,0 +1,71 @@
+package io.csra.wily.components.model;
+
+import java.util.Date;
+
+/**
+ * What S3 reports about a stored document, as returned by a HEAD request.
+ */
+public class S3DocumentMetadataDTO {
+
+	private String documentKey;
+	private long contentLength;
+	private String contentType;
+	private String eTag;
+	private Date lastModified;
+
+	public S3DocumentMetadataDTO() {
+
+	}
+
+	public S3DocumentMetadataDTO(String documentKey, long contentLength, String contentType, String eTag, Date lastModified) {
+		this.documentKey = documentKey;
+		this.contentLength = contentLength;
+		this.contentType = contentType;
+		this.eTag = eTag;
+		this.lastModified = lastModified;
+	}
+
+	public String getDocumentKey() {
+		return documentKey;
+	}
+
+	public void setDocumentKey(String documentKey) {
+		this.documentKey = documentKey;
+	}
+
+	/**
+	 * @return size of the whole document in bytes, even when only a range of it was read
+	 */
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	public void setContentLength(long contentLength) {
+		this.contentLength = contentLength;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	public void setETag(String eTag) {
+		this.eTag = eTag;
+	}
+
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+}
@@ -0,0 +1,81 @@
+package io.csra.wily.components.model;
+
+/**
+ * Outcome of a bulk S3 operation for one document.
+ */
+public class S3KeyResultDTO {
+
+	private String documentKey;
+	private boolean successful;
+	private long bytes;
+	private byte[] content;
+	private String errorMessage;
+
+	public S3KeyResultDTO() {
+
+	}
+
+	public S3KeyResultDTO(String documentKey) {
+		this.documentKey = documentKey;
+	}
+
+	public static S3KeyResultDTO succeeded(String documentKey, long bytes) {
+		S3KeyResultDTO result = new S3KeyResultDTO(documentKey);
+		result.setSuccessful(true);
+		result.setBytes(bytes);
+		return result;
+	}
+
+	public static S3KeyResultDTO failed(String documentKey, String errorMessage) {
+		S3KeyResultDTO result = new S3KeyResultDTO(documentKey);
+		result.setErrorMessage(errorMessage);
+		return result;
+	}
+
+	public String getDocumentKey() {
+		return documentKey;
+	}
+
+	public void setDocumentKey(String documentKey) {
+		this.documentKey = documentKey;
+	}
+
+	public boolean isSuccessful() {
+		return successful;
+	}
+
+	public void setSuccessful(boolean successful) {
+		this.successful = successful;
+	}
+
+	/**
+	 * @return number of bytes transferred for the document; zero for deletes
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	public void setBytes(long bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return the document's content, for bulk reads into memory only
+	 */
+	public byte[] getContent() {
+		return content;
+	}
+
+	public void setContent(byte[] content) {
+		this.content = content;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	public void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+}
@@ -0,0 +1,175 @@
+package io.csra.wily.components.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The codes SmartyStreets reports in a candidate's analysis, with their descriptions.
+ *
+ * Every code is two or three ASCII characters, so {@link #forCode} resolves one with a single array read indexed by
+ * its first two characters rather than by hashing a string. The lookup tables are built the first time they are
+ * needed and never change afterwards.
+ */
+public enum SmartyStreetsCode {
+
+	AA("AA", Category.DPV, "City/state/ZIP + street are all valid."),
+	A1("A1", Category.DPV, "ZIP+4 not matched; address is invalid. (City/state/ZIP + street don't match.)"),
+	BB("BB", Category.DPV, "ZIP+4 matched; confirmed entire address; address is valid."),
+	CC("CC", Category.DPV, "Confirmed address by dropping secondary (apartment, suite, etc.) information."),
+	F1("F1", Category.DPV, "Matched to military or diplomatic address."),
+	G1("G1", Category.DPV, "Matched to general delivery address."),
+	M1("M1", Category.DPV, "Primary number (e.g., house number) is missing."),
+	M3("M3", Category.DPV, "Primary number (e.g., house number) is invalid."),
+	N1("N1", Category.DPV, "Confirmed with missing secondary information; address is valid but it also needs a secondary number (apartment, suite, etc.)."),
+	PB("PB", Category.DPV, "Confirmed as a PO BOX street style address."),
+	P1("P1", Category.DPV, "PO, RR, or HC box number is missing."),
+	P3("P3", Category.DPV, "PO, RR, or HC box number is invalid."),
+	RR("RR", Category.DPV, "Confirmed address with private mailbox (PMB) info."),
+	R1("R1", Category.DPV, "Confirmed address without private mailbox (PMB) info."),
+	R7("R7", Category.DPV, "Confirmed as a valid address that doesn't currently receive US Postal Service street delivery."),
+	U1("U1", Category.DPV, "Matched a unique ZIP Code."),
+
+	A_HASH("A#", Category.FOOTNOTE, "Corrected ZIP Code"),
+	B_HASH("B#", Category.FOOTNOTE, "Fixed city/state spelling"),
+	C_HASH("C#", Category.FOOTNOTE, "Invalid city/state/ZIP"),
+	D_HASH("D#", Category.FOOTNOTE, "No ZIP+4 assigned"),
+	E_HASH("E#", Category.FOOTNOTE, "Same ZIP for multiple"),
+	F_HASH("F#", Category.FOOTNOTE, "Address not found"),
+	G_HASH("G#", Category.FOOTNOTE, "Used firm data"),
+	H_HASH("H#", Category.FOOTNOTE, "Missing secondary number"),
+	I_HASH("I#", Category.FOOTNOTE, "Insufficient/incorrect address data"),
+	J_HASH("J#", Category.FOOTNOTE, "Dual address"),
+	K_HASH("K#", Category.FOOTNOTE, "Cardinal rule match"),
+	L_HASH("L#", Category.FOOTNOTE, "Changed address component"),
+	LL_HASH("LL#", Category.FOOTNOTE, "Flagged address for LACSLink"),
+	LI_HASH("LI#", Category.FOOTNOTE, "Flagged address for LACSLink"),
+	M_HASH("M#", Category.FOOTNOTE, "Fixed street spelling"),
+	N_HASH("N#", Category.FOOTNOTE, "Fixed abbreviations"),
+	O_HASH("O#", Category.FOOTNOTE, "Multiple ZIP+4; lowest used"),
+	P_HASH("P#", Category.FOOTNOTE, "Better address exists"),
+	Q_HASH("Q#", Category.FOOTNOTE, "Unique ZIP match"),
+	R_HASH("R#", Category.FOOTNOTE, "No match; EWS: Match soon"),
+	S_HASH("S#", Category.FOOTNOTE, "Bad secondary address"),
+	T_HASH("T#", Category.FOOTNOTE, "Multiple response due to magnet street syndrome"),
+	U_HASH("U#", Category.FOOTNOTE, "Unofficial post office name"),
+	V_HASH("V#", Category.FOOTNOTE, "Unverifiable city / state"),
+	W_HASH("W#", Category.FOOTNOTE, "Invalid delivery address"),
+	X_HASH("X#", Category.FOOTNOTE, "Unique ZIP Code"),
+	Y_HASH("Y#", Category.FOOTNOTE, "Military match"),
+	Z_HASH("Z#", Category.FOOTNOTE, "Matched with ZIPMOVE");
+
+	/**
+	 * Where a code is reported: the delivery point validation footnotes, or the general address footnotes.
+	 */
+	public enum Category {
+		DPV, FOOTNOTE
+	}
+
+	private final String code;
+	private final Category category;
+	private final String description;
+
+	SmartyStreetsCode(String code, Category category, String description) {
+		this.code = code;
+		this.category = category;
+		this.description = description;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public Category getCategory() {
+		return category;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @param code code as reported by SmartyStreets, e.g. "AA" or "LL#"
+	 * @return the matching constant, or null if the code is not recognized
+	 */
+	public static SmartyStreetsCode forCode(CharSequence code) {
+		return code == null ? null : forCode(code, 0, code.length());
+	}
+
+	/**
+	 * Resolves the code held in source between start (inclusive) and end (exclusive) without copying it out.
+	 *
+	 * @return the matching constant, or null if the code is not recognized
+	 */
+	public static SmartyStreetsCode forCode(CharSequence source, int start, int end) {
+		int length = end - start;
+		if (length < 2 || length > 3) {
+			return null;
+		}
+
+		char first = source.charAt(start);
+		char second = source.charAt(start + 1);
+		if (first >= Lookup.ASCII || second >= Lookup.ASCII) {
+			return null;
+		}
+
+		if (length == 2) {
+			return Lookup.TWO_CHARACTER_CODES[Lookup.index(first, second)];
+		}
+
+		return source.charAt(start + 2) == '#' ? Lookup.THREE_CHARACTER_CODES[Lookup.index(first, second)] : null;
+	}
+
+	/**
+	 * @return every code in the category; the set cannot be modified
+	 */
+	public static Set<SmartyStreetsCode> inCategory(Category category) {
+		return Lookup.BY_CATEGORY.get(category);
+	}
+
+	/**
+	 * Built on first use; the class initialization lock guarantees every thread sees the tables fully populated.
+	 */
+	private static final class Lookup {
+
+		private static final int ASCII = 128;
+
+		private static final SmartyStreetsCode[] TWO_CHARACTER_CODES = new SmartyStreetsCode[ASCII * ASCII];
+
+		/**
+		 * Three character codes, all of which end in '#', indexed by their first two characters.
+		 */
+		private static final SmartyStreetsCode[] THREE_CHARACTER_CODES = new SmartyStreetsCode[ASCII * ASCII];
+
+		private static final Map<Category, Set<SmartyStreetsCode>> BY_CATEGORY;
+
+		static {
+			Map<Category, Set<SmartyStreetsCode>> byCategory = new EnumMap<>(Category.class);
+			for (Category category : Category.values()) {
+				byCategory.put(category, EnumSet.noneOf(SmartyStreetsCode.class));
+			}
+
+			for (SmartyStreetsCode value : values()) {
+				int index = index(value.code.charAt(0), value.code.charAt(1));
+				if (value.code.length() == 2) {
+					TWO_CHARACTER_CODES[index] = value;
+				} else {
+					THREE_CHARACTER_CODES[index] = value;
+				}
+				byCategory.get(value.category).add(value);
+			}
+
+			for (Map.Entry<Category, Set<SmartyStreetsCode>> entry : byCategory.entrySet()) {
+				entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+			}
+			BY_CATEGORY = Collections.unmodifiableMap(byCategory);
+		}
+
+		private static int index(char first, char second) {
+			return first * ASCII + second;
+		}
+	}
+
+}
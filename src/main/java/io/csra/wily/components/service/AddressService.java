@@ -7,6 +7,8 @@ import io.csra.wily.components.model.CoordinatesDTO;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public interface AddressService {
 
@@ -14,6 +16,27 @@ public interface AddressService {
 
     List<AddressResultDTO> checkAddresses(List<AddressInputDTO> dtos) throws IOException, SmartyException;
 
+    /**
+     * Non-blocking {@link #checkAddress(AddressInputDTO)}, using the default timeout (smartystreets.async.timeout.millis).
+     * The future fails with the IOException or SmartyException the blocking call would have thrown.
+     *
+     * @param dto address to verify
+     * @return future result; cancelling it abandons the lookup
+     */
+    CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto);
+
+    CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto, long timeout, TimeUnit unit);
+
+    /**
+     * Non-blocking {@link #checkAddresses(List)}, using the default timeout (smartystreets.async.timeout.millis).
+     *
+     * @param dtos addresses to verify
+     * @return future results in input order; cancelling it abandons any batches not yet sent
+     */
+    CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos);
+
+    CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos, long timeout, TimeUnit unit);
+
     double distanceBetween(CoordinatesDTO coordinates1, CoordinatesDTO coordinates2);
 
 }
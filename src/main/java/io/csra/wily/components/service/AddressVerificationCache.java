@@ -0,0 +1,36 @@
+package io.csra.wily.components.service;
+
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CacheStatisticsDTO;
+import io.csra.wily.components.model.CachedAddressResultDTO;
+
+/**
+ * Result cache that sits in front of the SmartyStreets client. Entries are keyed on
+ * {@link AddressInputDTO#toNormalizedKey()}, so the same address typed with different casing or spacing shares an entry.
+ * Implementations are expected to bound their size and expire entries after a time-to-live, with a separate (usually
+ * shorter) time-to-live for negative entries.
+ */
+public interface AddressVerificationCache {
+
+    /**
+     * @param dto address being verified
+     * @return the cached entry, or null when the address has not been cached
+     */
+    CachedAddressResultDTO get(AddressInputDTO dto);
+
+    /**
+     * Cache the outcome of a lookup. A null result is stored as a negative entry.
+     *
+     * @param dto address that was verified
+     * @param result verified result, or null if SmartyStreets returned no candidate
+     */
+    void put(AddressInputDTO dto, AddressResultDTO result);
+
+    void evict(AddressInputDTO dto);
+
+    void clear();
+
+    CacheStatisticsDTO getStatistics();
+
+}
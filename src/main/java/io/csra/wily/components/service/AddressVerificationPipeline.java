@@ -0,0 +1,36 @@
+package io.csra.wily.components.service;
+
+import com.smartystreets.api.exceptions.SmartyException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Verifies a whole file of addresses without holding it in memory. Rows are read, verified in bounded batches and
+ * written out as their batch completes, so memory use depends on the batch size rather than the size of the file.
+ */
+public interface AddressVerificationPipeline {
+
+    enum Format {
+        CSV, TSV, XLSX
+    }
+
+    /**
+     * The input must start with a header row. Columns are matched to {@link io.csra.wily.components.model.AddressInputDTO}
+     * fields by name, ignoring case, spaces and punctuation (so "Zipcode", "zip code" and "ZIP_CODE" all match); other
+     * columns are ignored. Rows without an Input Id column value are numbered from 1.
+     *
+     * Results are written in input order as {@link io.csra.wily.components.model.AddressVerificationRowDTO} columns,
+     * tab-delimited for TSV input and comma-delimited otherwise. Neither stream is closed.
+     *
+     * @param in file to verify
+     * @param inputFormat format of the input
+     * @param out destination for the verified rows
+     * @return number of rows verified
+     * @throws IOException if the input cannot be read or the output written
+     * @throws SmartyException if SmartyStreets rejects a batch
+     */
+    long verify(InputStream in, Format inputFormat, OutputStream out) throws IOException, SmartyException;
+
+}
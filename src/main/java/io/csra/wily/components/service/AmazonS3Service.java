@@ -1,14 +1,99 @@
 package io.csra.wily.components.service;
 
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Date;
+import java.util.stream.Stream;
 
 public interface AmazonS3Service {
 
     byte[] getDocumentFromS3(String documentKey) throws IOException;
 
+    /**
+     * Streams the document to out without holding it in memory. out is not closed.
+     *
+     * @return number of bytes written
+     */
+    long getDocumentFromS3(String documentKey, OutputStream out) throws IOException;
+
+    /**
+     * Streams the document to channel without holding it in memory. channel is not closed.
+     *
+     * @return number of bytes written
+     */
+    long getDocumentFromS3(String documentKey, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Opens the document for reading. The caller must close the stream, which releases the underlying connection;
+     * closing before the end aborts the transfer instead of draining the rest of the object.
+     */
+    InputStream openDocumentFromS3(String documentKey) throws IOException;
+
+    /**
+     * Streams the document into a local file, replacing it if it exists. A partially written file is deleted if the
+     * download fails.
+     *
+     * @return number of bytes written
+     */
+    long downloadDocumentFromS3(String documentKey, Path target) throws IOException;
+
+    /**
+     * Looks up a document's metadata without reading its content.
+     *
+     * @return the metadata, or null if there is no document with the key
+     */
+    S3DocumentMetadataDTO getDocumentMetadataFromS3(String documentKey) throws IOException;
+
+    /**
+     * Reads bytes start to end (inclusive) of the document, as for an HTTP Range request. An end beyond the last byte is
+     * cut short at the last byte.
+     */
+    S3DocumentDTO getDocumentRangeFromS3(String documentKey, long start, long end) throws IOException;
+
+    /**
+     * Reads the document only if it differs from the version the caller already has, as for an HTTP conditional GET.
+     *
+     * @param eTag ETag of the caller's copy (If-None-Match), or null
+     * @param modifiedSince time the caller's copy was last modified (If-Modified-Since), or null
+     * @return the document, or a result flagged not modified if neither condition calls for a new copy
+     */
+    S3DocumentDTO getDocumentFromS3IfChanged(String documentKey, String eTag, Date modifiedSince) throws IOException;
+
     void uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic) throws IOException;
 
     void deleteDocumentFromS3(String documentKey);
+
+    /**
+     * Deletes documents in batches of up to 1,000 keys per request. A key that fails is reported in its result rather
+     * than stopping the others; deleting a key that does not exist succeeds.
+     */
+    S3BulkResultDTO deleteDocumentsFromS3(Collection<String> documentKeys) throws IOException;
+
+    /**
+     * Reads several documents into memory in parallel, up to aws.s3.bulk.max.in.flight at a time. A document that
+     * fails is reported in its result rather than stopping the others.
+     */
+    S3BulkResultDTO getDocumentsFromS3(Collection<String> documentKeys) throws IOException;
+
+    /**
+     * Downloads several documents in parallel, up to aws.s3.bulk.max.in.flight at a time, each to the path its key
+     * names under directory. A document that fails is reported in its result rather than stopping the others.
+     */
+    S3BulkResultDTO downloadDocumentsFromS3(Collection<String> documentKeys, Path directory) throws IOException;
+
+    /**
+     * Lists the documents whose keys start with prefix, in key order. Pages of aws.s3.list.page.size keys are requested
+     * only as the stream is consumed, so listing can stop early without reading the rest. Content type is not part of
+     * a listing and is left null.
+     */
+    Stream<S3DocumentMetadataDTO> listDocumentsFromS3(String prefix);
 }
@@ -0,0 +1,45 @@
+package io.csra.wily.components.service;
+
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link AmazonS3Service}: each call runs the blocking one on an executor and returns at
+ * once. Futures fail with the IOException the blocking call would have thrown, time out after
+ * aws.s3.async.timeout.millis if that is set, and cancelling one abandons the call.
+ */
+public interface AsyncAmazonS3Service {
+
+    CompletableFuture<byte[]> getDocumentFromS3(String documentKey);
+
+    /**
+     * Fetches each document in its own task, so the requests are in flight together.
+     *
+     * @return the documents' contents in key order; fails if any document fails
+     */
+    CompletableFuture<List<byte[]>> getDocumentsFromS3(List<String> documentKeys);
+
+    CompletableFuture<Long> downloadDocumentFromS3(String documentKey, Path target);
+
+    CompletableFuture<S3DocumentMetadataDTO> getDocumentMetadataFromS3(String documentKey);
+
+    CompletableFuture<S3DocumentDTO> getDocumentRangeFromS3(String documentKey, long start, long end);
+
+    CompletableFuture<S3DocumentDTO> getDocumentFromS3IfChanged(String documentKey, String eTag, Date modifiedSince);
+
+    CompletableFuture<Void> uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic);
+
+    CompletableFuture<Void> deleteDocumentFromS3(String documentKey);
+
+    CompletableFuture<S3BulkResultDTO> deleteDocumentsFromS3(Collection<String> documentKeys);
+
+    CompletableFuture<S3BulkResultDTO> downloadDocumentsFromS3(Collection<String> documentKeys, Path directory);
+}
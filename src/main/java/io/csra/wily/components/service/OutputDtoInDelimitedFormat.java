@@ -0,0 +1,54 @@
+package io.csra.wily.components.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Delimited text counterpart of {@link OutputDtoInExcelFormat}: the same columns, headers and value formatting, written
+ * as RFC-4180 CSV or as TSV in UTF-8, optionally gzip compressed.
+ */
+public interface OutputDtoInDelimitedFormat {
+
+	enum Format {
+		CSV(','), TSV('\t');
+
+		private final char delimiter;
+
+		Format(char delimiter) {
+			this.delimiter = delimiter;
+		}
+
+		public char getDelimiter() {
+			return delimiter;
+		}
+	}
+
+	/**
+	 * Feed in a list of objects, their class, and an output stream and this method will write a header row followed by
+	 * one row per object to the provided output stream. The stream is not closed.
+	 * 
+	 * @param dtos
+	 * @param clazz
+	 * @param out
+	 * @param format
+	 * @param gzip
+	 *            compress the output with gzip
+	 * @throws IOException
+	 */
+	<E> void write(List<E> dtos, Class<E> clazz, OutputStream out, Format format, boolean gzip) throws IOException;
+
+	/**
+	 * Same as {@link #write(List, Class, OutputStream, Format, boolean)}, pulling rows from the iterator one at a time.
+	 */
+	<E> void write(Iterator<E> dtos, Class<E> clazz, OutputStream out, Format format, boolean gzip) throws IOException;
+
+	/**
+	 * Same as {@link #write(Iterator, Class, OutputStream, Format, boolean)} for a stream. The stream is consumed but not
+	 * closed.
+	 */
+	<E> void write(Stream<E> dtos, Class<E> clazz, OutputStream out, Format format, boolean gzip) throws IOException;
+
+}
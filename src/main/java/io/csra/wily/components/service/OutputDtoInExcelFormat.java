@@ -2,7 +2,10 @@ package io.csra.wily.components.service;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 public interface OutputDtoInExcelFormat {
 
@@ -17,4 +20,38 @@ public interface OutputDtoInExcelFormat {
 	 */
 	<E> void write(List<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException;
 
+	/**
+	 * Same as {@link #write(List, Class, OutputStream, String)}, but rows are pulled from the iterator one at a time, so
+	 * they never need to be in memory all at once. Combine with a streaming workbook to keep heap use independent of the
+	 * number of rows.
+	 * 
+	 * @param dtos
+	 * @param clazz
+	 * @param out
+	 * @throws IOException
+	 */
+	<E> void write(Iterator<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException;
+
+	/**
+	 * Same as {@link #write(Iterator, Class, OutputStream, String)} for a stream, such as one backed by a database
+	 * cursor. The stream is consumed but not closed.
+	 * 
+	 * @param dtos
+	 * @param clazz
+	 * @param out
+	 * @throws IOException
+	 */
+	<E> void write(Stream<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException;
+
+	/**
+	 * Same as {@link #write(Iterator, Class, OutputStream, String)} for paged data. Pages are requested by number starting
+	 * at 0, each only once the previous page has been written, until the supplier returns null or an empty list.
+	 * 
+	 * @param pages
+	 * @param clazz
+	 * @param out
+	 * @throws IOException
+	 */
+	<E> void writePages(IntFunction<? extends List<E>> pages, Class<E> clazz, OutputStream out, String userName) throws IOException;
+
 }
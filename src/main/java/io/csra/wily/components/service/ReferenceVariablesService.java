@@ -1,12 +1,32 @@
 package io.csra.wily.components.service;
 
+import java.util.List;
 import java.util.Map;
 
 public interface ReferenceVariablesService {
 
+    /**
+     * @return the reference list in property order; the map is shared and unmodifiable
+     */
     Map<String, String> getReferences(String refType);
 
+    /**
+     * @return the reference list in key order; the map is shared and unmodifiable
+     */
     Map<String, String> getOrderedReferences(String refType);
 
     String getValue(String key, String refType);
+
+    /**
+     * Reverse of {@link #getValue(String, String)}, ignoring case.
+     *
+     * @return the key of the first pair whose description matches, or null if none does
+     */
+    String getKey(String description, String refType);
+
+    /**
+     * For typeahead: the pairs whose description starts with prefix, ignoring case, ordered by description. An empty
+     * prefix returns every pair. The list is a shared, unmodifiable view; take a subList for the first few matches.
+     */
+    List<Map.Entry<String, String>> findReferencesByPrefix(String prefix, String refType);
 }
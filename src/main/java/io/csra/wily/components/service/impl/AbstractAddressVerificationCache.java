@@ -0,0 +1,87 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CacheStatisticsDTO;
+import io.csra.wily.components.model.CachedAddressResultDTO;
+import io.csra.wily.components.service.AddressVerificationCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Handles the bookkeeping shared by every {@link AddressVerificationCache} backend: key normalization, hit/miss counters
+ * and handing out copies so callers can never modify a cached result. Backends only need to load, store and remove
+ * entries by key.
+ */
+public abstract class AbstractAddressVerificationCache implements AddressVerificationCache {
+
+    private final Duration timeToLive;
+    private final Duration negativeTimeToLive;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    protected final LongAdder evictions = new LongAdder();
+    protected final LongAdder expirations = new LongAdder();
+
+    protected AbstractAddressVerificationCache(Duration timeToLive, Duration negativeTimeToLive) {
+        this.timeToLive = timeToLive;
+        this.negativeTimeToLive = negativeTimeToLive;
+    }
+
+    @Override
+    public CachedAddressResultDTO get(AddressInputDTO dto) {
+        CachedAddressResultDTO entry = load(dto.toNormalizedKey());
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        if (entry.isNegative()) {
+            negativeHits.increment();
+            return entry;
+        }
+
+        AddressResultDTO result = new AddressResultDTO(entry.getResult());
+        result.setInputId(dto.getInputId());
+        return new CachedAddressResultDTO(result);
+    }
+
+    @Override
+    public void put(AddressInputDTO dto, AddressResultDTO result) {
+        if (result == null) {
+            if (!negativeTimeToLive.isZero()) {
+                store(dto.toNormalizedKey(), new CachedAddressResultDTO(), negativeTimeToLive);
+            }
+        } else {
+            store(dto.toNormalizedKey(), new CachedAddressResultDTO(new AddressResultDTO(result)), timeToLive);
+        }
+    }
+
+    @Override
+    public void evict(AddressInputDTO dto) {
+        remove(dto.toNormalizedKey());
+    }
+
+    @Override
+    public CacheStatisticsDTO getStatistics() {
+        return new CacheStatisticsDTO(hits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    protected Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    protected Duration getNegativeTimeToLive() {
+        return negativeTimeToLive;
+    }
+
+    protected abstract CachedAddressResultDTO load(String key);
+
+    protected abstract void store(String key, CachedAddressResultDTO entry, Duration ttl);
+
+    protected abstract void remove(String key);
+
+}
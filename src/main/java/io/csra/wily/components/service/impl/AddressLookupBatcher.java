@@ -0,0 +1,129 @@
+package io.csra.wily.components.service.impl;
+
+import com.smartystreets.api.us_street.Batch;
+import com.smartystreets.api.us_street.Client;
+import com.smartystreets.api.us_street.Lookup;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gathers single lookups submitted from many threads into one SmartyStreets {@link Batch}. A batch is sent as soon as
+ * it is full, or once the window has elapsed since its first lookup arrived, whichever comes first. Callers trade up to
+ * one window of latency for far fewer round trips under load.
+ */
+public class AddressLookupBatcher implements Closeable {
+
+    private final Client client;
+    private final long windowMillis;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingLookup> buffer;
+
+    /**
+     * @param client SmartyStreets client to send batches with
+     * @param windowMillis longest time a lookup waits for others to join its batch
+     * @param senderThreads threads available to send batches whose window elapsed
+     */
+    public AddressLookupBatcher(Client client, long windowMillis, int senderThreads) {
+        this.client = client;
+        this.windowMillis = windowMillis;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("smartystreets-coalesce-");
+        threadFactory.setDaemon(true);
+        this.scheduler = new ScheduledThreadPoolExecutor(senderThreads, threadFactory);
+    }
+
+    /**
+     * @param lookup lookup to send with the next batch
+     * @return future completed once the lookup's results have been populated
+     */
+    public CompletableFuture<Lookup> submit(Lookup lookup) {
+        PendingLookup pending = new PendingLookup(lookup);
+        List<PendingLookup> full = null;
+
+        synchronized (lock) {
+            if (buffer == null) {
+                List<PendingLookup> scheduled = new ArrayList<>(Batch.MAX_BATCH_SIZE);
+                buffer = scheduled;
+                scheduler.schedule(() -> flushIfCurrent(scheduled), windowMillis, TimeUnit.MILLISECONDS);
+            }
+
+            buffer.add(pending);
+            if (buffer.size() >= Batch.MAX_BATCH_SIZE) {
+                full = buffer;
+                buffer = null;
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        }
+
+        return pending.future;
+    }
+
+    @Override
+    public void close() {
+        List<PendingLookup> remaining;
+        synchronized (lock) {
+            remaining = buffer;
+            buffer = null;
+        }
+
+        if (remaining != null) {
+            send(remaining);
+        }
+
+        scheduler.shutdown();
+    }
+
+    private void flushIfCurrent(List<PendingLookup> scheduled) {
+        synchronized (lock) {
+            if (buffer != scheduled) {
+                // Already sent because it filled up before the window elapsed
+                return;
+            }
+            buffer = null;
+        }
+
+        send(scheduled);
+    }
+
+    private void send(List<PendingLookup> lookups) {
+        try {
+            Batch batch = new Batch();
+            for (PendingLookup pending : lookups) {
+                batch.add(pending.lookup);
+            }
+
+            client.send(batch);
+
+            for (PendingLookup pending : lookups) {
+                pending.future.complete(pending.lookup);
+            }
+        } catch (Throwable t) {
+            // Callers wait on these futures without a timeout, so they must be failed whatever went wrong
+            for (PendingLookup pending : lookups) {
+                pending.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static class PendingLookup {
+
+        private final Lookup lookup;
+        private final CompletableFuture<Lookup> future = new CompletableFuture<>();
+
+        PendingLookup(Lookup lookup) {
+            this.lookup = lookup;
+        }
+    }
+
+}
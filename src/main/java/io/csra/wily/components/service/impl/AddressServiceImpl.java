@@ -2,52 +2,268 @@ package io.csra.wily.components.service.impl;
 
 import com.smartystreets.api.exceptions.SmartyException;
 import com.smartystreets.api.us_street.*;
+import io.csra.wily.components.concurrent.AsyncExecutor;
 import io.csra.wily.components.model.AddressInputDTO;
 import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CachedAddressResultDTO;
 import io.csra.wily.components.model.CoordinatesDTO;
+import io.csra.wily.components.model.SmartyStreetsCode;
 import io.csra.wily.components.service.AddressService;
-import io.csra.wily.components.service.SmartyStreetsCodeMap;
+import io.csra.wily.components.service.AddressVerificationCache;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Service("addressService")
-public class AddressServiceImpl implements AddressService {
+public class AddressServiceImpl implements AddressService, DisposableBean {
 
     private static final int MEAN_RADIUS_OF_EARTH_IN_MILES = 3959;
     private static final int HAVERSINE_COEFFICIENT = 2;
+    private static final int DEFAULT_MAX_CONCURRENT_BATCHES = 4;
+    private static final int DEFAULT_ASYNC_THREADS = 16;
 
     @Autowired
     private Client smartyStreetsClient;
 
+    private AddressVerificationCache addressVerificationCache;
+
+    private ExecutorService addressVerificationExecutor;
+
+    private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
+
+    private Semaphore batchPermits = new Semaphore(DEFAULT_MAX_CONCURRENT_BATCHES);
+
+    private volatile AsyncExecutor asyncExecutor;
+
+    private long asyncTimeoutMillis;
+
+    private final ConcurrentMap<String, CompletableFuture<AddressResultDTO>> inFlightLookups = new ConcurrentHashMap<>();
+
+    private long coalesceWindowMillis;
+
+    private volatile AddressLookupBatcher lookupBatcher;
+
+    public void setSmartyStreetsClient(Client smartyStreetsClient) {
+        this.smartyStreetsClient = smartyStreetsClient;
+    }
+
+    /**
+     * Optional cache consulted before calling SmartyStreets. Only registered when smartystreets.cache.enabled is set.
+     *
+     * @param addressVerificationCache cache of previously verified addresses
+     */
+    @Autowired(required = false)
+    public void setAddressVerificationCache(AddressVerificationCache addressVerificationCache) {
+        this.addressVerificationCache = addressVerificationCache;
+    }
+
+    /**
+     * Pool used to send the batches of a large {@link #checkAddresses(List)} call in parallel. Without one, batches are
+     * sent one after another on the calling thread. Batches wait on this pool for a permit (see
+     * {@link #setMaxConcurrentBatches(int)}), so never run checkAddresses itself on it - the caller would hold a pool thread
+     * while waiting for its own batches.
+     *
+     * @param addressVerificationExecutor pool for batch requests
+     */
+    @Autowired(required = false)
+    @Qualifier("addressVerificationExecutor")
+    public void setAddressVerificationExecutor(ExecutorService addressVerificationExecutor) {
+        this.addressVerificationExecutor = addressVerificationExecutor;
+    }
+
+    /**
+     * Upper bound on batch requests in flight to SmartyStreets at once, across all callers of this service.
+     *
+     * @param maxConcurrentBatches maximum number of concurrent batch requests
+     */
+    @Value("${smartystreets.batch.max.concurrent:" + DEFAULT_MAX_CONCURRENT_BATCHES + "}")
+    public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+        this.maxConcurrentBatches = Math.max(1, maxConcurrentBatches);
+        this.batchPermits = new Semaphore(this.maxConcurrentBatches);
+    }
+
+    /**
+     * Executor the *Async methods run their lookups on. When none is configured, one backed by virtual threads (or a
+     * small platform pool before JDK 21) is created on first use.
+     *
+     * @param asyncExecutor executor for asynchronous lookups
+     */
+    @Autowired(required = false)
+    @Qualifier("addressVerificationAsyncExecutor")
+    public void setAsyncExecutor(AsyncExecutor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @param asyncTimeoutMillis default timeout for the *Async methods; zero or less waits indefinitely
+     */
+    @Value("${smartystreets.async.timeout.millis:0}")
+    public void setAsyncTimeoutMillis(long asyncTimeoutMillis) {
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    /**
+     * When greater than zero, single lookups from concurrent callers are held for up to this long so they can be sent to
+     * SmartyStreets together in one batch.
+     *
+     * @param coalesceWindowMillis micro-batching window; zero or less sends every lookup on its own
+     */
+    @Value("${smartystreets.coalesce.window.millis:0}")
+    public void setCoalesceWindowMillis(long coalesceWindowMillis) {
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    /**
+     * Verifies a single address. Concurrent callers verifying an equivalent address (see
+     * {@link AddressInputDTO#toNormalizedKey()}) share one SmartyStreets lookup, each receiving its own copy of the
+     * result. If the caller running the shared lookup is cancelled or times out, the others run it again instead of
+     * failing with it.
+     */
     @Override
     public AddressResultDTO checkAddress(AddressInputDTO dto) throws IOException, SmartyException {
-        Lookup lookup = getLookupForInput(dto);
-        smartyStreetsClient.send(lookup);
+        if (addressVerificationCache != null) {
+            CachedAddressResultDTO cached = addressVerificationCache.get(dto);
+            if (cached != null) {
+                return cached.getResult();
+            }
+        }
+
+        String key = dto.toNormalizedKey();
+        CompletableFuture<AddressResultDTO> pending = new CompletableFuture<>();
+        CompletableFuture<AddressResultDTO> inFlight;
+        while ((inFlight = inFlightLookups.putIfAbsent(key, pending)) != null) {
+            AddressResultDTO shared;
+            try {
+                shared = await(inFlight);
+            } catch (LookupAbandonedException e) {
+                // The caller sharing its lookup with us was cancelled or timed out; take over or follow the next one
+                continue;
+            }
+
+            if (shared == null) {
+                return null;
+            }
+
+            AddressResultDTO result = new AddressResultDTO(shared);
+            result.setInputId(dto.getInputId());
+            return result;
+        }
+
+        try {
+            Lookup lookup = getLookupForInput(dto);
+            sendLookup(lookup);
+
+            AddressResultDTO result = getResultFromLookup(lookup);
+            if (addressVerificationCache != null) {
+                addressVerificationCache.put(dto, result);
+            }
 
-        return getResultFromLookup(lookup);
+            pending.complete(result == null ? null : new AddressResultDTO(result));
+            return result;
+        } catch (Throwable t) {
+            inFlightLookups.remove(key, pending);
+            pending.completeExceptionally(isAbandoned(t) ? new LookupAbandonedException() : t);
+            throw t;
+        } finally {
+            inFlightLookups.remove(key, pending);
+        }
+    }
+
+    /**
+     * @return whether a lookup failed because its own caller gave up on it (an interrupt from a cancelled or timed-out
+     * *Async call) rather than because of the address or SmartyStreets
+     */
+    private static boolean isAbandoned(Throwable t) {
+        return Thread.currentThread().isInterrupted()
+                || t instanceof CancellationException
+                || (t instanceof InterruptedIOException && !(t instanceof SocketTimeoutException));
     }
 
+    /**
+     * Verifies every address in the list, returning results in input order (null where SmartyStreets had no candidate).
+     * Lists larger than the SmartyStreets batch limit are split into multiple batches, which are sent in parallel when
+     * an executor is configured.
+     */
     @Override
     public List<AddressResultDTO> checkAddresses(List<AddressInputDTO> dtos) throws IOException, SmartyException {
-        Batch batch = new Batch();
-        for(AddressInputDTO dto : dtos) {
-            batch.add(getLookupForInput(dto));
+        AddressResultDTO[] results = new AddressResultDTO[dtos.size()];
+
+        List<AddressInputDTO> pending = dtos;
+        int[] pendingIndexes = null;
+        if (addressVerificationCache != null) {
+            pending = new ArrayList<>();
+            pendingIndexes = new int[dtos.size()];
+            for (int i = 0; i < dtos.size(); i++) {
+                CachedAddressResultDTO cached = addressVerificationCache.get(dtos.get(i));
+                if (cached != null) {
+                    results[i] = cached.getResult();
+                } else {
+                    pendingIndexes[pending.size()] = i;
+                    pending.add(dtos.get(i));
+                }
+            }
         }
 
-        smartyStreetsClient.send(batch);
+        int batchCount = (pending.size() + Batch.MAX_BATCH_SIZE - 1) / Batch.MAX_BATCH_SIZE;
+        AddressResultDTO[] verified = pendingIndexes == null ? results : new AddressResultDTO[pending.size()];
 
-        List<AddressResultDTO> results = new ArrayList<>();
-        for(Lookup lookup : batch.getAllLookups()) {
-            AddressResultDTO result = getResultFromLookup(lookup);
-            results.add(result);
+        if (addressVerificationExecutor == null || batchCount <= 1) {
+            for (int start = 0; start < pending.size(); start += Batch.MAX_BATCH_SIZE) {
+                sendBatch(pending, start, verified);
+            }
+        } else {
+            sendBatchesInParallel(pending, verified);
         }
 
-        return results;
+        if (pendingIndexes != null) {
+            for (int i = 0; i < verified.length; i++) {
+                results[pendingIndexes[i]] = verified[i];
+                addressVerificationCache.put(pending.get(i), verified[i]);
+            }
+        }
+
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    @Override
+    public CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto) {
+        return checkAddressAsync(dto, asyncTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto, long timeout, TimeUnit unit) {
+        return getAsyncExecutor().submit(() -> checkAddress(dto), timeout, unit);
+    }
+
+    @Override
+    public CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos) {
+        return checkAddressesAsync(dtos, asyncTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos, long timeout, TimeUnit unit) {
+        return getAsyncExecutor().submit(() -> checkAddresses(dtos), timeout, unit);
     }
 
     @Override
@@ -69,6 +285,129 @@ public class AddressServiceImpl implements AddressService {
         return HAVERSINE_COEFFICIENT * MEAN_RADIUS_OF_EARTH_IN_MILES * Math.asin(Math.sqrt(intermediateResult));
     }
 
+    @Override
+    public void destroy() {
+        if (lookupBatcher != null) {
+            lookupBatcher.close();
+        }
+    }
+
+    private AsyncExecutor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            synchronized (this) {
+                if (asyncExecutor == null) {
+                    asyncExecutor = AsyncExecutor.create("smartystreets-async-", true, DEFAULT_ASYNC_THREADS);
+                }
+            }
+        }
+
+        return asyncExecutor;
+    }
+
+    private void sendBatchesInParallel(List<AddressInputDTO> dtos, AddressResultDTO[] results) throws IOException, SmartyException {
+        Semaphore permits = batchPermits;
+        List<Future<Void>> futures = new ArrayList<>();
+        try {
+            for (int start = 0; start < dtos.size(); start += Batch.MAX_BATCH_SIZE) {
+                int batchStart = start;
+                // The permit is taken by the task itself, so a task cancelled while still queued never holds one
+                futures.add(addressVerificationExecutor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        sendBatch(dtos, batchStart, results);
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures);
+            throw new InterruptedIOException("Interrupted while verifying addresses");
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private void sendLookup(Lookup lookup) throws IOException, SmartyException {
+        if (coalesceWindowMillis <= 0) {
+            smartyStreetsClient.send(lookup);
+            return;
+        }
+
+        if (lookupBatcher == null) {
+            synchronized (this) {
+                if (lookupBatcher == null) {
+                    lookupBatcher = new AddressLookupBatcher(smartyStreetsClient, coalesceWindowMillis, maxConcurrentBatches);
+                }
+            }
+        }
+
+        await(lookupBatcher.submit(lookup));
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws IOException, SmartyException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while verifying address");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Rethrows the failure of a lookup run on another thread as the exception the blocking call would have thrown.
+     */
+    private IOException rethrow(Throwable cause) throws IOException, SmartyException {
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof SmartyException) {
+            throw (SmartyException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+
+    /**
+     * Sends up to one full batch starting at the given index and writes the results into the same positions of the
+     * results array.
+     */
+    private void sendBatch(List<AddressInputDTO> dtos, int start, AddressResultDTO[] results) throws IOException, SmartyException {
+        int end = Math.min(start + Batch.MAX_BATCH_SIZE, dtos.size());
+
+        Batch batch = new Batch();
+        for (int i = start; i < end; i++) {
+            batch.add(getLookupForInput(dtos.get(i)));
+        }
+
+        smartyStreetsClient.send(batch);
+
+        int i = start;
+        for (Lookup lookup : batch.getAllLookups()) {
+            results[i++] = getResultFromLookup(lookup);
+        }
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
     private Lookup getLookupForInput(AddressInputDTO dto) {
         Lookup lookup = new Lookup();
         lookup.setInputId(dto.getInputId());
@@ -116,26 +455,32 @@ public class AddressServiceImpl implements AddressService {
         }
 
         if (response.getAnalysis() != null) {
-            List<String> footnotes = new ArrayList<>();
-            footnotes.add(getDescriptionForCode(response.getAnalysis().getFootnotes()));
-
             String dpvFootnotes = response.getAnalysis().getDpvFootnotes();
+            List<String> footnotes = new ArrayList<>(dpvFootnotes == null ? 1 : 2 + dpvFootnotes.length() / 2);
+            Set<SmartyStreetsCode> codes = EnumSet.noneOf(SmartyStreetsCode.class);
+            FootnoteDecoder.decodeFootnotes(response.getAnalysis().getFootnotes(), footnotes, codes);
+
             if(StringUtils.isNotBlank(dpvFootnotes)) {
-                // Split the string on every 2 characters - Regex suck
-                // https://stackoverflow.com/questions/2297347/splitting-a-string-at-every-n-th-character
-                for (String code : dpvFootnotes.split("(?<=\\G..)")) {
-                    footnotes.add(getDescriptionForCode(code));
-                }
+                FootnoteDecoder.decodeDpvFootnotes(dpvFootnotes, footnotes, codes);
             }
 
             result.setMatchInformation(response.getAnalysis().getDpvMatchCode(), footnotes);
+            result.setMatchCodes(codes);
         }
 
         return result;
     }
 
-    private String getDescriptionForCode(String code) {
-        return SmartyStreetsCodeMap.getCodes().get(code);
+    /**
+     * Handed to callers sharing a lookup whose own caller abandoned it, telling them to retry rather than fail.
+     */
+    private static final class LookupAbandonedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LookupAbandonedException() {
+            super("Shared address lookup was abandoned", null, false, false);
+        }
     }
 
-}
\ No newline at end of file
+}
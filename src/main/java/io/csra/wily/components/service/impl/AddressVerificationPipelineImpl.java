@@ -0,0 +1,270 @@
+package io.csra.wily.components.service.impl;
+
+import com.smartystreets.api.exceptions.SmartyException;
+import io.csra.wily.components.io.CsvReader;
+import io.csra.wily.components.io.CsvWriter;
+import io.csra.wily.components.io.RowReader;
+import io.csra.wily.components.io.XlsxRowReader;
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.AddressVerificationRowDTO;
+import io.csra.wily.components.service.AddressService;
+import io.csra.wily.components.service.AddressVerificationPipeline;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Service("addressVerificationPipeline")
+public class AddressVerificationPipelineImpl implements AddressVerificationPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AddressVerificationPipelineImpl.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 4;
+
+    private final AddressService addressService;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int maxChunksInFlight = DEFAULT_MAX_CHUNKS_IN_FLIGHT;
+
+    public AddressVerificationPipelineImpl(AddressService addressService) {
+        this.addressService = addressService;
+    }
+
+    /**
+     * @param chunkSize rows handed to the AddressService at a time
+     */
+    @Value("${smartystreets.pipeline.chunk.size:" + DEFAULT_CHUNK_SIZE + "}")
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Once this many chunks are being verified, reading stops until the oldest one has been written out.
+     *
+     * @param maxChunksInFlight chunks verified concurrently
+     */
+    @Value("${smartystreets.pipeline.max.in.flight:" + DEFAULT_MAX_CHUNKS_IN_FLIGHT + "}")
+    public void setMaxChunksInFlight(int maxChunksInFlight) {
+        this.maxChunksInFlight = Math.max(1, maxChunksInFlight);
+    }
+
+    @Override
+    public long verify(InputStream in, Format inputFormat, OutputStream out) throws IOException, SmartyException {
+        char delimiter = inputFormat == Format.TSV ? '\t' : ',';
+        CsvWriter writer = new CsvWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), delimiter);
+        DtoColumnModel columns = DtoColumnModel.forClass(AddressVerificationRowDTO.class);
+
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        long rowCount = 0;
+
+        try (RowReader reader = openReader(in, inputFormat, delimiter)) {
+            writer.writeRecord(columns.getHeaders());
+
+            String[] header = reader.readRow();
+            if (header != null) {
+                InputColumn[] inputColumns = mapColumns(header);
+
+                List<AddressInputDTO> chunk = new ArrayList<>(chunkSize);
+                String[] row;
+                while ((row = reader.readRow()) != null) {
+                    if (isBlank(row)) {
+                        continue;
+                    }
+
+                    chunk.add(toInput(row, inputColumns, ++rowCount));
+                    if (chunk.size() == chunkSize) {
+                        dispatch(chunk, inFlight, writer, columns);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+
+                if (!chunk.isEmpty()) {
+                    dispatch(chunk, inFlight, writer, columns);
+                }
+
+                while (!inFlight.isEmpty()) {
+                    write(inFlight.poll(), writer, columns);
+                }
+            }
+        } finally {
+            for (Chunk chunk : inFlight) {
+                chunk.results.cancel(true);
+            }
+        }
+
+        writer.flush();
+        LOGGER.debug("Verified {} addresses", rowCount);
+
+        return rowCount;
+    }
+
+    private RowReader openReader(InputStream in, Format inputFormat, char delimiter) throws IOException {
+        if (inputFormat == Format.XLSX) {
+            return new XlsxRowReader(in);
+        }
+
+        // Closing the reader must not close the caller's stream
+        InputStream unclosable = new FilterInputStream(in) {
+            @Override
+            public void close() {
+            }
+        };
+        return new CsvReader(new InputStreamReader(unclosable, StandardCharsets.UTF_8), delimiter);
+    }
+
+    /**
+     * Waits for the oldest chunk to finish if the pipeline is full, then starts verifying the given chunk.
+     */
+    private void dispatch(List<AddressInputDTO> chunk, Deque<Chunk> inFlight, CsvWriter writer, DtoColumnModel columns) throws IOException, SmartyException {
+        if (inFlight.size() >= maxChunksInFlight) {
+            write(inFlight.poll(), writer, columns);
+        }
+
+        inFlight.add(new Chunk(chunk, addressService.checkAddressesAsync(chunk)));
+    }
+
+    private void write(Chunk chunk, CsvWriter writer, DtoColumnModel columns) throws IOException, SmartyException {
+        List<AddressResultDTO> results;
+        try {
+            results = chunk.results.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while verifying addresses");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof SmartyException) {
+                throw (SmartyException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+
+        for (int i = 0; i < chunk.inputs.size(); i++) {
+            AddressVerificationRowDTO row = new AddressVerificationRowDTO(chunk.inputs.get(i).getInputId(), results.get(i));
+            for (int column = 0; column < columns.size(); column++) {
+                columns.write(row, column, writer);
+            }
+            writer.endRecord();
+        }
+    }
+
+    private AddressInputDTO toInput(String[] row, InputColumn[] inputColumns, long rowNumber) {
+        AddressInputDTO dto = new AddressInputDTO();
+        for (int i = 0; i < row.length && i < inputColumns.length; i++) {
+            if (inputColumns[i] != null && StringUtils.isNotBlank(row[i])) {
+                inputColumns[i].set(dto, row[i].trim());
+            }
+        }
+
+        if (StringUtils.isBlank(dto.getInputId())) {
+            dto.setInputId(String.valueOf(rowNumber));
+        }
+
+        return dto;
+    }
+
+    private InputColumn[] mapColumns(String[] header) {
+        InputColumn[] inputColumns = new InputColumn[header.length];
+        for (int i = 0; i < header.length; i++) {
+            inputColumns[i] = InputColumn.forHeader(header[i]);
+        }
+
+        return inputColumns;
+    }
+
+    private boolean isBlank(String[] row) {
+        for (String cell : row) {
+            if (StringUtils.isNotBlank(cell)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private enum InputColumn {
+        INPUT_ID {
+            void set(AddressInputDTO dto, String value) { dto.setInputId(value); }
+        },
+        STREET {
+            void set(AddressInputDTO dto, String value) { dto.setStreet(value); }
+        },
+        STREET2 {
+            void set(AddressInputDTO dto, String value) { dto.setStreet2(value); }
+        },
+        SECONDARY {
+            void set(AddressInputDTO dto, String value) { dto.setSecondary(value); }
+        },
+        CITY {
+            void set(AddressInputDTO dto, String value) { dto.setCity(value); }
+        },
+        STATE {
+            void set(AddressInputDTO dto, String value) { dto.setState(value); }
+        },
+        ZIPCODE {
+            void set(AddressInputDTO dto, String value) { dto.setZipcode(value); }
+        },
+        LASTLINE {
+            void set(AddressInputDTO dto, String value) { dto.setLastline(value); }
+        },
+        ADDRESSEE {
+            void set(AddressInputDTO dto, String value) { dto.setAddressee(value); }
+        },
+        URBANIZATION {
+            void set(AddressInputDTO dto, String value) { dto.setUrbanization(value); }
+        };
+
+        abstract void set(AddressInputDTO dto, String value);
+
+        static InputColumn forHeader(String header) {
+            if (header == null) {
+                return null;
+            }
+
+            String name = header.replaceAll("[^A-Za-z0-9]", "").toUpperCase();
+            if ("ZIP".equals(name)) {
+                return ZIPCODE;
+            }
+
+            for (InputColumn column : values()) {
+                if (column.name().replace("_", "").equals(name)) {
+                    return column;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private static class Chunk {
+
+        private final List<AddressInputDTO> inputs;
+        private final CompletableFuture<List<AddressResultDTO>> results;
+
+        Chunk(List<AddressInputDTO> inputs, CompletableFuture<List<AddressResultDTO>> results) {
+            this.inputs = inputs;
+            this.results = results;
+        }
+    }
+
+}
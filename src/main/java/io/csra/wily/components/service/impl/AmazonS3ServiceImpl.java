@@ -1,23 +1,82 @@
 package io.csra.wily.components.service.impl;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
+import io.csra.wily.components.model.S3KeyResultDTO;
 import io.csra.wily.components.service.AmazonS3Service;
 import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AmazonS3ServiceImpl implements AmazonS3Service {
 
+    private static final int MIN_BUFFER_SIZE = 4 * 1024;
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+    private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final long DEFAULT_MULTIPART_THRESHOLD = 16L * 1024 * 1024;
+    private static final long DEFAULT_PART_SIZE = 8L * 1024 * 1024;
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int DEFAULT_PARTS_IN_FLIGHT = 4;
+
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+    private static final int DEFAULT_BULK_IN_FLIGHT = 4;
+    private static final int DEFAULT_LIST_PAGE_SIZE = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmazonS3ServiceImpl.class);
+
     private Environment environment;
 
     private AmazonS3 s3Client;
 
+    private ExecutorService transferExecutor;
+
     public AmazonS3ServiceImpl(Environment environment, AmazonS3 s3Client) {
         this.environment = environment;
         this.s3Client = s3Client;
@@ -27,12 +86,14 @@ public class AmazonS3ServiceImpl implements AmazonS3Service {
     public byte[] getDocumentFromS3(String documentKey) throws IOException {
         S3Object fullObject = null;
         try {
-            // Get an object and print its contents.
-            fullObject = s3Client.getObject(new GetObjectRequest(environment.getRequiredProperty("aws.s3.bucket.name"), documentKey));
-            return IOUtils.toByteArray(fullObject.getObjectContent());
-        } catch (AmazonServiceException e) {
-            // The call was transmitted successfully, but Amazon S3 couldn't process it, so it returned an error response.
-            throw new IOException(e);
+            fullObject = getObject(documentKey);
+            long contentLength = fullObject.getObjectMetadata().getContentLength();
+            if (contentLength <= 0 || contentLength > MAX_ARRAY_SIZE) {
+                return IOUtils.toByteArray(fullObject.getObjectContent());
+            }
+
+            // The length is known, so read straight into an array of the right size instead of growing a buffer
+            return IOUtils.toByteArray(fullObject.getObjectContent(), contentLength);
         } finally {
             // To ensure that the network connection doesn't remain open, close any open input streams.
             if (fullObject != null) {
@@ -42,15 +103,130 @@ public class AmazonS3ServiceImpl implements AmazonS3Service {
     }
 
     @Override
-    public void uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic) throws IOException {
-        File localFile = null;
+    public long getDocumentFromS3(String documentKey, OutputStream out) throws IOException {
+        try (S3Object object = getObject(documentKey)) {
+            InputStream in = object.getObjectContent();
+            byte[] buffer = new byte[bufferSize(object)];
+
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                total += read;
+            }
+
+            return total;
+        }
+    }
+
+    @Override
+    public long getDocumentFromS3(String documentKey, WritableByteChannel channel) throws IOException {
+        try (S3Object object = getObject(documentKey)) {
+            InputStream in = object.getObjectContent();
+            byte[] buffer = new byte[bufferSize(object)];
+            ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                wrapped.clear().limit(read);
+                while (wrapped.hasRemaining()) {
+                    channel.write(wrapped);
+                }
+                total += read;
+            }
+
+            return total;
+        }
+    }
+
+    @Override
+    public InputStream openDocumentFromS3(String documentKey) throws IOException {
+        return new S3DocumentInputStream(getObject(documentKey));
+    }
+
+    @Override
+    public long downloadDocumentFromS3(String documentKey, Path target) throws IOException {
+        boolean complete = false;
+        try (S3Object object = getObject(documentKey);
+             ReadableByteChannel source = Channels.newChannel(object.getObjectContent());
+             FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int chunk = bufferSize(object);
+
+            long position = 0;
+            long transferred;
+            while ((transferred = file.transferFrom(source, position, chunk)) > 0) {
+                position += transferred;
+            }
+
+            complete = true;
+            return position;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    @Override
+    public S3DocumentMetadataDTO getDocumentMetadataFromS3(String documentKey) throws IOException {
         try {
-            // Upload a file as a new object with ContentType and title specified.
-            localFile = toFile(file);
-            PutObjectRequest request = new PutObjectRequest(environment.getRequiredProperty("aws.s3.bucket.name"), documentKey, localFile);
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            request.setMetadata(metadata);
+            ObjectMetadata metadata = s3Client.getObjectMetadata(environment.getRequiredProperty("aws.s3.bucket.name"), documentKey);
+            return toMetadata(documentKey, metadata);
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return null;
+            }
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public S3DocumentDTO getDocumentRangeFromS3(String documentKey, long start, long end) throws IOException {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid range " + start + "-" + end);
+        }
+
+        return toDocument(getObject(newGetObjectRequest(documentKey).withRange(start, end)));
+    }
+
+    @Override
+    public S3DocumentDTO getDocumentFromS3IfChanged(String documentKey, String eTag, Date modifiedSince) throws IOException {
+        GetObjectRequest request = newGetObjectRequest(documentKey);
+        if (eTag != null) {
+            request.withNonmatchingETagConstraint(eTag);
+        }
+        if (modifiedSince != null) {
+            request.withModifiedSinceConstraint(modifiedSince);
+        }
+
+        // The client answers null when S3 reports 304 Not Modified
+        S3Object object = getObject(request);
+        return object == null ? S3DocumentDTO.notModified() : toDocument(object);
+    }
+
+    @Override
+    public void uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic) throws IOException {
+        if (file == null) {
+            throw new IOException("Uploaded File Does Not Exist!");
+        }
+
+        String bucketName = environment.getRequiredProperty("aws.s3.bucket.name");
+        long multipartThreshold = environment.getProperty("aws.s3.multipart.threshold.bytes", Long.class, DEFAULT_MULTIPART_THRESHOLD);
+
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(file.getContentType());
+
+        try (InputStream in = file.getInputStream()) {
+            if (file.getSize() >= multipartThreshold) {
+                uploadInParts(bucketName, documentKey, in, metadata, isPublic);
+                return;
+            }
+
+            // Upload the stream as a new object with ContentType and title specified; a known length lets the SDK
+            // send it without buffering.
+            metadata.setContentLength(file.getSize());
+            PutObjectRequest request = new PutObjectRequest(bucketName, documentKey, in, metadata);
 
             if (isPublic) {
                 request.withCannedAcl(CannedAccessControlList.PublicRead);
@@ -60,30 +236,397 @@ public class AmazonS3ServiceImpl implements AmazonS3Service {
         } catch (AmazonServiceException e) {
             // The call was transmitted successfully, but Amazon S3 couldn't process it, so it returned an error response.
             throw new IOException(e);
-        } finally {
-            if (localFile != null) {
-                localFile.delete();
-            }
         }
     }
 
+    /**
+     * @param transferExecutor bounded pool used to send the parts of large uploads in parallel; without one, parts are
+     *                         sent one after another on the calling thread
+     */
+    public void setTransferExecutor(ExecutorService transferExecutor) {
+        this.transferExecutor = transferExecutor;
+    }
+
     @Override
     public void deleteDocumentFromS3(String documentKey) {
         s3Client.deleteObject(new DeleteObjectRequest(environment.getRequiredProperty("aws.s3.bucket.name"), documentKey));
     }
 
+    @Override
+    public S3BulkResultDTO deleteDocumentsFromS3(Collection<String> documentKeys) throws IOException {
+        long started = System.nanoTime();
+        String bucketName = environment.getRequiredProperty("aws.s3.bucket.name");
+
+        List<String> keys = new ArrayList<>(documentKeys);
+        List<Callable<List<S3KeyResultDTO>>> batches = new ArrayList<>(keys.size() / MAX_KEYS_PER_DELETE + 1);
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<String> batch = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_DELETE));
+            batches.add(() -> deleteBatch(bucketName, batch));
+        }
+
+        List<S3KeyResultDTO> results = new ArrayList<>(keys.size());
+        for (List<S3KeyResultDTO> batchResults : runAll(batches)) {
+            results.addAll(batchResults);
+        }
+
+        return finish("Deleted", results, started);
+    }
+
+    @Override
+    public S3BulkResultDTO getDocumentsFromS3(Collection<String> documentKeys) throws IOException {
+        return forEachKey("Read", documentKeys, documentKey -> {
+            byte[] content = getDocumentFromS3(documentKey);
+
+            S3KeyResultDTO result = S3KeyResultDTO.succeeded(documentKey, content.length);
+            result.setContent(content);
+            return result;
+        });
+    }
+
+    @Override
+    public S3BulkResultDTO downloadDocumentsFromS3(Collection<String> documentKeys, Path directory) throws IOException {
+        Path root = directory.toAbsolutePath().normalize();
+        return forEachKey("Downloaded", documentKeys, documentKey -> {
+            Path target = root.resolve(documentKey).normalize();
+            if (!target.startsWith(root) || target.equals(root)) {
+                throw new IOException("Document key " + documentKey + " does not name a file under " + directory);
+            }
+
+            Files.createDirectories(target.getParent());
+            return S3KeyResultDTO.succeeded(documentKey, downloadDocumentFromS3(documentKey, target));
+        });
+    }
+
+    @Override
+    public Stream<S3DocumentMetadataDTO> listDocumentsFromS3(String prefix) {
+        int pageSize = Math.max(1, Math.min(DEFAULT_LIST_PAGE_SIZE,
+                environment.getProperty("aws.s3.list.page.size", Integer.class, DEFAULT_LIST_PAGE_SIZE)));
+
+        ListingIterator listing = new ListingIterator(environment.getRequiredProperty("aws.s3.bucket.name"), prefix, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(listing,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    private List<S3KeyResultDTO> deleteBatch(String bucketName, List<String> documentKeys) {
+        DeleteObjectsRequest request = new DeleteObjectsRequest(bucketName)
+                .withKeys(documentKeys.toArray(new String[0]))
+                .withQuiet(true);
+
+        Map<String, String> errors = new HashMap<>();
+        try {
+            s3Client.deleteObjects(request);
+        } catch (MultiObjectDeleteException e) {
+            // Some keys failed; in quiet mode S3 reports only those
+            for (MultiObjectDeleteException.DeleteError error : e.getErrors()) {
+                errors.put(error.getKey(), error.getCode() + ": " + error.getMessage());
+            }
+        } catch (AmazonClientException e) {
+            List<S3KeyResultDTO> results = new ArrayList<>(documentKeys.size());
+            for (String documentKey : documentKeys) {
+                results.add(S3KeyResultDTO.failed(documentKey, e.getMessage()));
+            }
+            return results;
+        }
+
+        List<S3KeyResultDTO> results = new ArrayList<>(documentKeys.size());
+        for (String documentKey : documentKeys) {
+            String error = errors.get(documentKey);
+            results.add(error == null ? S3KeyResultDTO.succeeded(documentKey, 0) : S3KeyResultDTO.failed(documentKey, error));
+        }
+        return results;
+    }
+
+    private S3BulkResultDTO forEachKey(String operation, Collection<String> documentKeys, KeyOperation keyOperation) throws IOException {
+        long started = System.nanoTime();
+
+        List<Callable<S3KeyResultDTO>> tasks = new ArrayList<>(documentKeys.size());
+        for (String documentKey : documentKeys) {
+            tasks.add(() -> {
+                try {
+                    return keyOperation.apply(documentKey);
+                } catch (IOException | AmazonClientException e) {
+                    return S3KeyResultDTO.failed(documentKey, e.getMessage());
+                }
+            });
+        }
+
+        return finish(operation, runAll(tasks), started);
+    }
+
+    private S3BulkResultDTO finish(String operation, List<S3KeyResultDTO> results, long started) {
+        S3BulkResultDTO bulkResult = new S3BulkResultDTO(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        LOGGER.debug("{} {} documents ({} failed, {} bytes) in {} ms", operation, results.size(), bulkResult.getFailed(),
+                bulkResult.getBytes(), bulkResult.getElapsedMillis());
+        return bulkResult;
+    }
+
+    /**
+     * Runs the tasks on the transfer executor, at most aws.s3.bulk.max.in.flight at a time, and returns their results in
+     * task order.
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+        int maxInFlight = Math.max(1, environment.getProperty("aws.s3.bulk.max.in.flight", Integer.class, DEFAULT_BULK_IN_FLIGHT));
+
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+        List<T> results = new ArrayList<>(tasks.size());
+        boolean complete = false;
+        try {
+            for (Callable<T> task : tasks) {
+                if (inFlight.size() >= maxInFlight) {
+                    results.add(await(inFlight.poll()));
+                }
+                inFlight.add(submit(task));
+            }
+
+            while (!inFlight.isEmpty()) {
+                results.add(await(inFlight.poll()));
+            }
+
+            complete = true;
+            return results;
+        } finally {
+            if (!complete) {
+                for (Future<T> future : inFlight) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private GetObjectRequest newGetObjectRequest(String documentKey) {
+        return new GetObjectRequest(environment.getRequiredProperty("aws.s3.bucket.name"), documentKey);
+    }
+
+    private S3Object getObject(String documentKey) throws IOException {
+        return getObject(newGetObjectRequest(documentKey));
+    }
+
+    private S3Object getObject(GetObjectRequest request) throws IOException {
+        try {
+            return s3Client.getObject(request);
+        } catch (AmazonServiceException e) {
+            // The call was transmitted successfully, but Amazon S3 couldn't process it, so it returned an error response.
+            throw new IOException(e);
+        }
+    }
+
+    private S3DocumentDTO toDocument(S3Object response) throws IOException {
+        try (S3Object object = response) {
+            ObjectMetadata metadata = object.getObjectMetadata();
+
+            S3DocumentDTO document = new S3DocumentDTO();
+            document.setMetadata(toMetadata(object.getKey(), metadata));
+            document.setContent(IOUtils.toByteArray(object.getObjectContent(), metadata.getContentLength()));
+
+            Long[] range = metadata.getContentRange();
+            document.setRangeStart(range != null ? range[0] : 0);
+            document.setRangeEnd(range != null ? range[1] : metadata.getContentLength() - 1);
+            return document;
+        }
+    }
+
+    private S3DocumentMetadataDTO toMetadata(String documentKey, ObjectMetadata metadata) {
+        // For a range read the instance length is the size of the whole object rather than of the range
+        return new S3DocumentMetadataDTO(documentKey, metadata.getInstanceLength(), metadata.getContentType(),
+                metadata.getETag(), metadata.getLastModified());
+    }
+
+    /**
+     * Small objects are copied with a buffer no bigger than themselves; large ones with a buffer big enough to keep the
+     * number of reads and writes down without tying up much memory per download.
+     */
+    private int bufferSize(S3Object object) {
+        long contentLength = object.getObjectMetadata().getContentLength();
+        if (contentLength <= 0) {
+            return DEFAULT_BUFFER_SIZE;
+        }
+
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(contentLength, MAX_BUFFER_SIZE));
+    }
 
-    private File toFile(MultipartFile multipartFile) throws IOException {
-        if (multipartFile != null && multipartFile.getOriginalFilename() != null) {
-            File convFile = new File(multipartFile.getOriginalFilename());
-            convFile.createNewFile();
-            FileOutputStream fos = new FileOutputStream(convFile);
-            fos.write(multipartFile.getBytes());
-            fos.close();
+    /**
+     * Reads the stream one part at a time and sends each part as soon as it is read. At most
+     * aws.s3.multipart.max.in.flight parts are buffered or being sent at once; if any part fails, the parts still in
+     * flight are cancelled and the multipart upload is aborted so S3 discards what was already sent.
+     */
+    private void uploadInParts(String bucketName, String documentKey, InputStream in, ObjectMetadata metadata, boolean isPublic) throws IOException {
+        int partSize = (int) Math.max(MIN_PART_SIZE, environment.getProperty("aws.s3.multipart.part.size.bytes", Long.class, DEFAULT_PART_SIZE));
+        int maxInFlight = Math.max(1, environment.getProperty("aws.s3.multipart.max.in.flight", Integer.class, DEFAULT_PARTS_IN_FLIGHT));
 
-            return convFile;
+        InitiateMultipartUploadRequest initiateRequest = new InitiateMultipartUploadRequest(bucketName, documentKey, metadata);
+        if (isPublic) {
+            initiateRequest.withCannedACL(CannedAccessControlList.PublicRead);
         }
+        String uploadId = s3Client.initiateMultipartUpload(initiateRequest).getUploadId();
+
+        Deque<Future<PartETag>> inFlight = new ArrayDeque<>();
+        List<PartETag> partETags = new ArrayList<>();
+        boolean complete = false;
+        try {
+            int partNumber = 1;
+            byte[] part;
+            while ((part = readPart(in, partSize)) != null) {
+                if (inFlight.size() >= maxInFlight) {
+                    partETags.add(await(inFlight.poll()));
+                }
 
-        throw new IOException("Uploaded File Does Not Exist!");
+                UploadPartRequest request = new UploadPartRequest()
+                        .withBucketName(bucketName)
+                        .withKey(documentKey)
+                        .withUploadId(uploadId)
+                        .withPartNumber(partNumber++)
+                        .withInputStream(new ByteArrayInputStream(part))
+                        .withPartSize(part.length);
+                inFlight.add(submit(() -> s3Client.uploadPart(request).getPartETag()));
+            }
+
+            while (!inFlight.isEmpty()) {
+                partETags.add(await(inFlight.poll()));
+            }
+
+            s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, documentKey, uploadId, partETags));
+            complete = true;
+        } finally {
+            if (!complete) {
+                for (Future<PartETag> future : inFlight) {
+                    future.cancel(true);
+                }
+                abortQuietly(bucketName, documentKey, uploadId);
+            }
+        }
+    }
+
+    /**
+     * @return the next partSize bytes of the stream, fewer for the last part, or null once the stream is exhausted
+     */
+    private byte[] readPart(InputStream in, int partSize) throws IOException {
+        byte[] buffer = new byte[partSize];
+        int length = IOUtils.read(in, buffer);
+        if (length == 0) {
+            return null;
+        }
+
+        return length == partSize ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        if (transferExecutor == null) {
+            FutureTask<T> future = new FutureTask<>(task);
+            future.run();
+            return future;
+        }
+
+        return transferExecutor.submit(task);
+    }
+
+    private <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while transferring to S3");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void abortQuietly(String bucketName, String documentKey, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, documentKey, uploadId));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to abort multipart upload {} of {}", uploadId, documentKey, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeyOperation {
+
+        S3KeyResultDTO apply(String documentKey) throws IOException;
+    }
+
+    /**
+     * Walks a listing one page at a time, requesting the next page only once the current one has been consumed.
+     */
+    private class ListingIterator implements Iterator<S3DocumentMetadataDTO> {
+
+        private final ListObjectsV2Request request;
+        private Iterator<S3ObjectSummary> page;
+        private boolean lastPage;
+
+        ListingIterator(String bucketName, String prefix, int pageSize) {
+            request = new ListObjectsV2Request()
+                    .withBucketName(bucketName)
+                    .withPrefix(prefix)
+                    .withMaxKeys(pageSize);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((page == null || !page.hasNext()) && !lastPage) {
+                ListObjectsV2Result result;
+                try {
+                    result = s3Client.listObjectsV2(request);
+                } catch (AmazonServiceException e) {
+                    throw new UncheckedIOException(new IOException(e));
+                }
+
+                page = result.getObjectSummaries().iterator();
+                lastPage = !result.isTruncated();
+                request.setContinuationToken(result.getNextContinuationToken());
+            }
+
+            return page != null && page.hasNext();
+        }
+
+        @Override
+        public S3DocumentMetadataDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            S3ObjectSummary summary = page.next();
+            return new S3DocumentMetadataDTO(summary.getKey(), summary.getSize(), null, summary.getETag(), summary.getLastModified());
+        }
+    }
+
+    /**
+     * Releases the S3 connection on close, aborting it rather than reading the rest of the object if the caller stops
+     * early.
+     */
+    private static class S3DocumentInputStream extends FilterInputStream {
+
+        private final S3Object object;
+        private boolean endOfStream;
+
+        S3DocumentInputStream(S3Object object) {
+            super(object.getObjectContent());
+            this.object = object;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            endOfStream |= read == -1;
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            endOfStream |= read == -1;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!endOfStream) {
+                object.getObjectContent().abort();
+            }
+            object.close();
+        }
     }
 }
@@ -0,0 +1,130 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.concurrent.AsyncExecutor;
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
+import io.csra.wily.components.service.AmazonS3Service;
+import io.csra.wily.components.service.AsyncAmazonS3Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncAmazonS3ServiceImpl implements AsyncAmazonS3Service {
+
+    private final AmazonS3Service amazonS3Service;
+
+    private final AsyncExecutor asyncExecutor;
+
+    private long timeoutMillis;
+
+    public AsyncAmazonS3ServiceImpl(AmazonS3Service amazonS3Service, AsyncExecutor asyncExecutor) {
+        this.amazonS3Service = amazonS3Service;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * @param timeoutMillis time after which a call fails with a TimeoutException; zero or less waits indefinitely
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getDocumentFromS3(String documentKey) {
+        return submit(() -> amazonS3Service.getDocumentFromS3(documentKey));
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> getDocumentsFromS3(List<String> documentKeys) {
+        List<CompletableFuture<byte[]>> documents = new ArrayList<>(documentKeys.size());
+        for (String documentKey : documentKeys) {
+            documents.add(getDocumentFromS3(documentKey));
+        }
+
+        CompletableFuture<List<byte[]>> all = CompletableFuture.allOf(documents.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    List<byte[]> contents = new ArrayList<>(documents.size());
+                    for (CompletableFuture<byte[]> document : documents) {
+                        contents.add(document.join());
+                    }
+                    return contents;
+                });
+
+        // allOf waits for every fetch; fail as soon as one does, and stop the rest when the caller gives up
+        for (CompletableFuture<byte[]> document : documents) {
+            document.whenComplete((content, t) -> {
+                if (t != null) {
+                    all.completeExceptionally(t);
+                }
+            });
+        }
+        all.whenComplete((contents, t) -> {
+            if (t != null) {
+                for (CompletableFuture<byte[]> document : documents) {
+                    document.cancel(true);
+                }
+            }
+        });
+
+        return all;
+    }
+
+    @Override
+    public CompletableFuture<Long> downloadDocumentFromS3(String documentKey, Path target) {
+        return submit(() -> amazonS3Service.downloadDocumentFromS3(documentKey, target));
+    }
+
+    @Override
+    public CompletableFuture<S3DocumentMetadataDTO> getDocumentMetadataFromS3(String documentKey) {
+        return submit(() -> amazonS3Service.getDocumentMetadataFromS3(documentKey));
+    }
+
+    @Override
+    public CompletableFuture<S3DocumentDTO> getDocumentRangeFromS3(String documentKey, long start, long end) {
+        return submit(() -> amazonS3Service.getDocumentRangeFromS3(documentKey, start, end));
+    }
+
+    @Override
+    public CompletableFuture<S3DocumentDTO> getDocumentFromS3IfChanged(String documentKey, String eTag, Date modifiedSince) {
+        return submit(() -> amazonS3Service.getDocumentFromS3IfChanged(documentKey, eTag, modifiedSince));
+    }
+
+    @Override
+    public CompletableFuture<Void> uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic) {
+        return submit(() -> {
+            amazonS3Service.uploadDocumentToS3(file, documentKey, isPublic);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteDocumentFromS3(String documentKey) {
+        return submit(() -> {
+            amazonS3Service.deleteDocumentFromS3(documentKey);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<S3BulkResultDTO> deleteDocumentsFromS3(Collection<String> documentKeys) {
+        return submit(() -> amazonS3Service.deleteDocumentsFromS3(documentKeys));
+    }
+
+    @Override
+    public CompletableFuture<S3BulkResultDTO> downloadDocumentsFromS3(Collection<String> documentKeys, Path directory) {
+        return submit(() -> amazonS3Service.downloadDocumentsFromS3(documentKeys, directory));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        return asyncExecutor.submit(task, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+}
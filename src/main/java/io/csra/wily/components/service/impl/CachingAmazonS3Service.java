@@ -0,0 +1,444 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
+import io.csra.wily.components.service.AmazonS3Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache of whole documents on local disk in front of another {@link AmazonS3Service}.
+ *
+ * Cached copies are tracked in least-recently-used order and evicted once their total size passes the byte budget;
+ * documents bigger than the budget are never cached. Before a copy is served its ETag is compared with the one S3
+ * reports for a HEAD request (at most once per validation interval), so a document replaced by another node is
+ * fetched again. Copies are read through memory-mapped buffers. Concurrent reads of the same missing or stale document
+ * share one download, and uploads and deletes made through this service drop the cached copy.
+ *
+ * Ranged, conditional, metadata and bulk reads go straight to the delegate.
+ */
+public class CachingAmazonS3Service implements AmazonS3Service {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingAmazonS3Service.class);
+    private static final String FILE_SUFFIX = ".s3cache";
+
+    private final AmazonS3Service delegate;
+    private final Path directory;
+    private final long maxBytes;
+    private final long validationIntervalMillis;
+
+    /**
+     * Guarded by itself; iteration order is least recently used first.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final ConcurrentMap<String, CompletableFuture<Entry>> inFlightLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every invalidation, so a download that overlapped one is served but not cached.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param delegate service that talks to S3
+     * @param directory where cached copies are kept; leftovers from a previous run are deleted
+     * @param maxBytes total size of cached copies
+     * @param validationInterval how long a copy is served after its ETag was last checked; zero checks on every read
+     */
+    public CachingAmazonS3Service(AmazonS3Service delegate, Path directory, long maxBytes, Duration validationInterval) throws IOException {
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.validationIntervalMillis = validationInterval.toMillis();
+
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(this.directory, "*" + FILE_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    @Override
+    public byte[] getDocumentFromS3(String documentKey) throws IOException {
+        ByteBuffer cached = map(documentKey);
+        if (cached == null) {
+            return delegate.getDocumentFromS3(documentKey);
+        }
+
+        byte[] content = new byte[cached.remaining()];
+        cached.get(content);
+        return content;
+    }
+
+    @Override
+    public long getDocumentFromS3(String documentKey, OutputStream out) throws IOException {
+        ByteBuffer cached = map(documentKey);
+        if (cached == null) {
+            return delegate.getDocumentFromS3(documentKey, out);
+        }
+
+        return write(cached, Channels.newChannel(out));
+    }
+
+    @Override
+    public long getDocumentFromS3(String documentKey, WritableByteChannel channel) throws IOException {
+        ByteBuffer cached = map(documentKey);
+        if (cached == null) {
+            return delegate.getDocumentFromS3(documentKey, channel);
+        }
+
+        return write(cached, channel);
+    }
+
+    @Override
+    public InputStream openDocumentFromS3(String documentKey) throws IOException {
+        ByteBuffer cached = map(documentKey);
+        if (cached == null) {
+            return delegate.openDocumentFromS3(documentKey);
+        }
+
+        return new ByteBufferInputStream(cached);
+    }
+
+    @Override
+    public long downloadDocumentFromS3(String documentKey, Path target) throws IOException {
+        Entry entry = acquire(documentKey);
+        if (entry != null) {
+            try {
+                Files.copy(entry.file, target, StandardCopyOption.REPLACE_EXISTING);
+                return entry.size;
+            } catch (NoSuchFileException e) {
+                // Evicted between lookup and copy
+                LOGGER.debug("Cached copy of {} was evicted while being read", documentKey);
+            }
+        }
+
+        return delegate.downloadDocumentFromS3(documentKey, target);
+    }
+
+    @Override
+    public S3DocumentMetadataDTO getDocumentMetadataFromS3(String documentKey) throws IOException {
+        return delegate.getDocumentMetadataFromS3(documentKey);
+    }
+
+    @Override
+    public S3DocumentDTO getDocumentRangeFromS3(String documentKey, long start, long end) throws IOException {
+        return delegate.getDocumentRangeFromS3(documentKey, start, end);
+    }
+
+    @Override
+    public S3DocumentDTO getDocumentFromS3IfChanged(String documentKey, String eTag, Date modifiedSince) throws IOException {
+        return delegate.getDocumentFromS3IfChanged(documentKey, eTag, modifiedSince);
+    }
+
+    @Override
+    public void uploadDocumentToS3(MultipartFile file, String documentKey, boolean isPublic) throws IOException {
+        invalidate(documentKey);
+        try {
+            delegate.uploadDocumentToS3(file, documentKey, isPublic);
+        } finally {
+            invalidate(documentKey);
+        }
+    }
+
+    @Override
+    public void deleteDocumentFromS3(String documentKey) {
+        invalidate(documentKey);
+        try {
+            delegate.deleteDocumentFromS3(documentKey);
+        } finally {
+            invalidate(documentKey);
+        }
+    }
+
+    @Override
+    public S3BulkResultDTO deleteDocumentsFromS3(Collection<String> documentKeys) throws IOException {
+        documentKeys.forEach(this::invalidate);
+        try {
+            return delegate.deleteDocumentsFromS3(documentKeys);
+        } finally {
+            documentKeys.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public S3BulkResultDTO getDocumentsFromS3(Collection<String> documentKeys) throws IOException {
+        return delegate.getDocumentsFromS3(documentKeys);
+    }
+
+    @Override
+    public S3BulkResultDTO downloadDocumentsFromS3(Collection<String> documentKeys, Path directory) throws IOException {
+        return delegate.downloadDocumentsFromS3(documentKeys, directory);
+    }
+
+    @Override
+    public Stream<S3DocumentMetadataDTO> listDocumentsFromS3(String prefix) {
+        return delegate.listDocumentsFromS3(prefix);
+    }
+
+    /**
+     * Drops the cached copy of a document, if there is one.
+     */
+    public void invalidate(String documentKey) {
+        invalidations.incrementAndGet();
+
+        Entry removed;
+        synchronized (entries) {
+            removed = entries.remove(documentKey);
+            if (removed != null) {
+                totalBytes -= removed.size;
+            }
+        }
+
+        if (removed != null) {
+            delete(removed);
+        }
+    }
+
+    /**
+     * @return total size of the cached copies, in bytes
+     */
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * @return a read-only view of the cached copy, or null if the document can't be cached
+     */
+    private ByteBuffer map(String documentKey) throws IOException {
+        Entry entry = acquire(documentKey);
+        if (entry == null) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(entry.file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed, and after the file is evicted and deleted
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.size);
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Cached copy of {} was evicted while being read", documentKey);
+            return null;
+        }
+    }
+
+    /**
+     * Returns a current cached copy, downloading or revalidating it first if needed. Only one caller per document does
+     * the work; the rest wait for its result.
+     */
+    private Entry acquire(String documentKey) throws IOException {
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(documentKey);
+        }
+        if (cached != null && System.currentTimeMillis() - cached.validatedAt < validationIntervalMillis) {
+            return cached;
+        }
+
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlightLoads.putIfAbsent(documentKey, load);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            Entry entry = load(documentKey, cached);
+            load.complete(entry);
+            return entry;
+        } catch (Throwable t) {
+            // Followers wait without a timeout, so they must be released whatever the failure
+            load.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightLoads.remove(documentKey, load);
+        }
+    }
+
+    private Entry load(String documentKey, Entry cached) throws IOException {
+        long invalidationsAtStart = invalidations.get();
+
+        // Look up the ETag before downloading: if the document changes in between, the copy is merely fetched again
+        // on the next read, whereas the other order could pair old content with the new ETag.
+        S3DocumentMetadataDTO metadata = delegate.getDocumentMetadataFromS3(documentKey);
+        if (metadata == null) {
+            invalidate(documentKey);
+            return null;
+        }
+
+        if (cached != null && metadata.getETag() != null && metadata.getETag().equals(cached.eTag)) {
+            cached.validatedAt = System.currentTimeMillis();
+            return cached;
+        }
+
+        if (metadata.getContentLength() > maxBytes || metadata.getContentLength() > Integer.MAX_VALUE) {
+            invalidate(documentKey);
+            return null;
+        }
+
+        Path file = directory.resolve(UUID.randomUUID() + FILE_SUFFIX);
+        long size = delegate.downloadDocumentFromS3(documentKey, file);
+        Entry entry = new Entry(file, size, metadata.getETag());
+
+        if (invalidations.get() != invalidationsAtStart) {
+            // Something was uploaded or deleted meanwhile, so check the ETag again before serving this copy a second time
+            entry.validatedAt = 0;
+        }
+        store(documentKey, entry);
+        return entry;
+    }
+
+    private void store(String documentKey, Entry entry) {
+        Entry replaced;
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (entries) {
+            replaced = entries.put(documentKey, entry);
+            totalBytes += entry.size;
+            if (replaced != null) {
+                totalBytes -= replaced.size;
+            }
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Entry candidate = eldest.next().getValue();
+                if (candidate != entry) {
+                    eldest.remove();
+                    totalBytes -= candidate.size;
+                    evicted.add(candidate);
+                }
+            }
+        }
+
+        if (replaced != null) {
+            delete(replaced);
+        }
+        for (Entry candidate : evicted) {
+            delete(candidate);
+        }
+    }
+
+    private void delete(Entry entry) {
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete cached document {}", entry.file, e);
+        }
+    }
+
+    private long write(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        long size = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        return size;
+    }
+
+    private Entry await(CompletableFuture<Entry> load) throws IOException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a document from S3");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static class Entry {
+
+        private final Path file;
+        private final long size;
+        private final String eTag;
+        private volatile long validatedAt = System.currentTimeMillis();
+
+        Entry(Path file, long size, String eTag) {
+            this.file = file;
+            this.size = size;
+            this.eTag = eTag;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
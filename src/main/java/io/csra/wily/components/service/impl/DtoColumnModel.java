@@ -0,0 +1,374 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.io.CsvWriter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.text.WordUtils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The columns every DTO exporter writes, so workbook and text output can't drift apart: one column per field of the
+ * class (including inherited and static fields), headed by the humanized field name, with Booleans shown as Y/N and
+ * BigDecimals with two decimal places.
+ *
+ * Models are built once per set of fields and cached. Each column reads its field through a {@link MethodHandle} and is
+ * specialized for the field's type, so primitives are never boxed on the way to a cell, and whole numbers and strings go
+ * to a {@link CsvWriter} without a String being created for them.
+ */
+public class DtoColumnModel {
+
+    private static final ConcurrentMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, DtoColumnModel> MODELS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<List<Field>, DtoColumnModel> MODELS_BY_FIELDS = new ConcurrentHashMap<>();
+    private static final int DECIMAL_PLACES = 2;
+
+    private final Column[] columns;
+    private final String[] headers;
+
+    private DtoColumnModel(List<Field> fields) {
+        this.columns = new Column[fields.size()];
+        this.headers = new String[fields.size()];
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columnFor(fields.get(i));
+            headers[i] = getHumanReadableHeaderValue(fields.get(i).getName());
+        }
+    }
+
+    public static DtoColumnModel forClass(Class<?> clazz) {
+        return MODELS.computeIfAbsent(clazz, c -> forFields(fieldsOf(c)));
+    }
+
+    /**
+     * @return the model for exactly these fields, in this order
+     */
+    static DtoColumnModel forFields(Field[] fields) {
+        return MODELS_BY_FIELDS.computeIfAbsent(Arrays.asList(fields.clone()), DtoColumnModel::new);
+    }
+
+    /**
+     * @return every field of the class, including inherited fields; the array is a copy and may be modified
+     */
+    static Field[] fieldsOf(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, FieldUtils::getAllFields).clone();
+    }
+
+    public int size() {
+        return columns.length;
+    }
+
+    public String[] getHeaders() {
+        return headers.clone();
+    }
+
+    /**
+     * @param dto row object
+     * @param column column index
+     * @return the cell text for the given column of the row, never null
+     */
+    public String format(Object dto, int column) {
+        try {
+            return columns[column].format(dto);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read column " + column, t);
+        }
+    }
+
+    /**
+     * Writes the same text as {@link #format} as the next field of the writer's current record.
+     *
+     * @param dto row object
+     * @param column column index
+     * @param writer destination
+     * @throws IOException if the writer fails
+     */
+    public void write(Object dto, int column, CsvWriter writer) throws IOException {
+        try {
+            columns[column].write(dto, writer);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read column " + column, t);
+        }
+    }
+
+    /**
+     * The value for a typed cell, such as a workbook cell: a Double for BigDecimal fields, so they can be shown as
+     * numbers, and otherwise the same text as {@link #format} except that an empty value is null.
+     *
+     * @param dto row object
+     * @param column column index
+     * @return a String, a Double, or null
+     */
+    Object cellValue(Object dto, int column) {
+        try {
+            return columns[column].cellValue(dto);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read column " + column, t);
+        }
+    }
+
+    /**
+     * @return the cell values of every row, row after row, as {@link #cellValue} gives them
+     */
+    Object[] cellValues(List<?> dtos) {
+        Object[] values = new Object[dtos.size() * columns.length];
+        int i = 0;
+        for (Object dto : dtos) {
+            for (int column = 0; column < columns.length; column++) {
+                values[i++] = cellValue(dto, column);
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Split a camel case name on upper case letters and capitalize each word, e.g. countyFipsCode becomes
+     * "County Fips Code".
+     *
+     * @param camelCaseFieldName field name
+     * @return header text
+     */
+    public static String getHumanReadableHeaderValue(String camelCaseFieldName) {
+        String[] words = StringUtils.splitByCharacterTypeCamelCase(camelCaseFieldName);
+        StringBuilder sb = new StringBuilder();
+
+        for (String word : words) {
+            sb.append(WordUtils.capitalize(word));
+            sb.append(" ");
+        }
+
+        return sb.toString().trim();
+    }
+
+    /**
+     * @return a handle of type (Object)T reading the field, for static fields as well as instance fields
+     */
+    private static MethodHandle getter(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                return MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+
+            return getter;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access " + field.getName(), e);
+        }
+    }
+
+    private static Column columnFor(Field field) {
+        MethodHandle getter = getter(field);
+        Class<?> type = field.getType();
+
+        if (type == int.class || type == short.class || type == byte.class || type == long.class) {
+            return new WholeNumberColumn(getter.asType(MethodType.methodType(long.class, Object.class)));
+        } else if (type == double.class) {
+            return new DoubleColumn(getter.asType(MethodType.methodType(double.class, Object.class)));
+        } else if (type == float.class) {
+            return new FloatColumn(getter.asType(MethodType.methodType(float.class, Object.class)));
+        } else if (type == boolean.class) {
+            return new BooleanColumn(getter.asType(MethodType.methodType(boolean.class, Object.class)));
+        } else if (type == char.class) {
+            return new CharacterColumn(getter.asType(MethodType.methodType(char.class, Object.class)));
+        }
+
+        MethodHandle handle = getter.asType(MethodType.methodType(Object.class, Object.class));
+        if (Boolean.class.equals(type)) {
+            return new YesNoColumn(handle);
+        } else if (BigDecimal.class.equals(type)) {
+            return new DecimalColumn(handle);
+        }
+
+        return new ObjectColumn(handle);
+    }
+
+    private abstract static class Column {
+
+        /**
+         * @return the cell text, or null when there is no value
+         */
+        abstract String text(Object dto) throws Throwable;
+
+        Object cellValue(Object dto) throws Throwable {
+            return text(dto);
+        }
+
+        String format(Object dto) throws Throwable {
+            String text = text(dto);
+            return text == null ? "" : text;
+        }
+
+        void write(Object dto, CsvWriter writer) throws Throwable {
+            writer.writeField(text(dto));
+        }
+    }
+
+    private static class WholeNumberColumn extends Column {
+
+        private final MethodHandle getter;
+
+        WholeNumberColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            return Long.toString((long) getter.invokeExact(dto));
+        }
+
+        @Override
+        void write(Object dto, CsvWriter writer) throws Throwable {
+            writer.writeField((long) getter.invokeExact(dto));
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+
+        private final MethodHandle getter;
+
+        DoubleColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            return Double.toString((double) getter.invokeExact(dto));
+        }
+    }
+
+    private static class FloatColumn extends Column {
+
+        private final MethodHandle getter;
+
+        FloatColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            return Float.toString((float) getter.invokeExact(dto));
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+
+        private final MethodHandle getter;
+
+        BooleanColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            return Boolean.toString((boolean) getter.invokeExact(dto));
+        }
+    }
+
+    private static class CharacterColumn extends Column {
+
+        private final MethodHandle getter;
+
+        CharacterColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            return String.valueOf((char) getter.invokeExact(dto));
+        }
+
+        @Override
+        void write(Object dto, CsvWriter writer) throws Throwable {
+            writer.writeField((char) getter.invokeExact(dto));
+        }
+    }
+
+    private static class YesNoColumn extends Column {
+
+        private final MethodHandle getter;
+
+        YesNoColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            Object value = (Object) getter.invokeExact(dto);
+            if (value == null) {
+                return null;
+            }
+
+            return ((Boolean) value) ? "Y" : "N";
+        }
+    }
+
+    private static class DecimalColumn extends Column {
+
+        private final MethodHandle getter;
+
+        DecimalColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            Object value = (Object) getter.invokeExact(dto);
+            if (value == null) {
+                return null;
+            }
+
+            return ((BigDecimal) value).setScale(DECIMAL_PLACES, RoundingMode.HALF_UP).toPlainString();
+        }
+
+        @Override
+        Object cellValue(Object dto) throws Throwable {
+            Object value = (Object) getter.invokeExact(dto);
+            return value == null ? null : ((BigDecimal) value).doubleValue();
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+
+        private final MethodHandle getter;
+
+        ObjectColumn(MethodHandle getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        String text(Object dto) throws Throwable {
+            Object value = (Object) getter.invokeExact(dto);
+            return value == null ? null : value.toString();
+        }
+
+        @Override
+        void write(Object dto, CsvWriter writer) throws Throwable {
+            Object value = (Object) getter.invokeExact(dto);
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                writer.writeField(((Number) value).longValue());
+            } else {
+                writer.writeField(value == null ? null : value.toString());
+            }
+        }
+    }
+
+}
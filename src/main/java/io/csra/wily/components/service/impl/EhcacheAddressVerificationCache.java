@@ -0,0 +1,102 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.CachedAddressResultDTO;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheEventListenerConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.CacheEventListener;
+import org.ehcache.event.EventType;
+import org.ehcache.expiry.ExpiryPolicy;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * In-process {@link io.csra.wily.components.service.AddressVerificationCache} backed by an on-heap Ehcache. The cache
+ * holds at most {@code maxEntries} results, evicting the least valuable entries once full, and expires each entry after
+ * the time-to-live for its kind (positive or negative).
+ */
+public class EhcacheAddressVerificationCache extends AbstractAddressVerificationCache implements Closeable {
+
+    private static final String CACHE_ALIAS = "addressVerification";
+
+    private final CacheManager cacheManager;
+    private final Cache<String, CachedAddressResultDTO> cache;
+
+    public EhcacheAddressVerificationCache(long maxEntries, Duration timeToLive, Duration negativeTimeToLive) {
+        super(timeToLive, negativeTimeToLive);
+
+        CacheEventListener<String, CachedAddressResultDTO> listener = this::onEvent;
+
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache(CACHE_ALIAS, CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(String.class, CachedAddressResultDTO.class, ResourcePoolsBuilder.heap(maxEntries))
+                        .withExpiry(new EntryExpiryPolicy())
+                        .withService(CacheEventListenerConfigurationBuilder
+                                .newEventListenerConfiguration(listener, EventType.EVICTED, EventType.EXPIRED)
+                                .unordered()
+                                .asynchronous()))
+                .build(true);
+        this.cache = cacheManager.getCache(CACHE_ALIAS, String.class, CachedAddressResultDTO.class);
+    }
+
+    @Override
+    protected CachedAddressResultDTO load(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    protected void store(String key, CachedAddressResultDTO entry, Duration ttl) {
+        cache.put(key, entry);
+    }
+
+    @Override
+    protected void remove(String key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        cacheManager.close();
+    }
+
+    private void onEvent(CacheEvent<? extends String, ? extends CachedAddressResultDTO> event) {
+        if (event.getType() == EventType.EVICTED) {
+            evictions.increment();
+        } else if (event.getType() == EventType.EXPIRED) {
+            expirations.increment();
+        }
+    }
+
+    /**
+     * Ehcache only supports one expiry policy per cache, so pick the time-to-live from the kind of entry being written.
+     */
+    private class EntryExpiryPolicy implements ExpiryPolicy<String, CachedAddressResultDTO> {
+
+        @Override
+        public Duration getExpiryForCreation(String key, CachedAddressResultDTO value) {
+            return value.isNegative() ? getNegativeTimeToLive() : getTimeToLive();
+        }
+
+        @Override
+        public Duration getExpiryForAccess(String key, Supplier<? extends CachedAddressResultDTO> value) {
+            return null;
+        }
+
+        @Override
+        public Duration getExpiryForUpdate(String key, Supplier<? extends CachedAddressResultDTO> oldValue, CachedAddressResultDTO newValue) {
+            return getExpiryForCreation(key, newValue);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.SmartyStreetsCode;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns the SmartyStreets footnote strings into codes and descriptions without regular expressions or substrings.
+ *
+ * DPV footnotes are a run of fixed-width two character codes ("AABB"); analysis footnotes are a run of codes each
+ * terminated by '#' ("A#LL#N#"). Each code is resolved in place with {@link SmartyStreetsCode#forCode}.
+ */
+final class FootnoteDecoder {
+
+    private FootnoteDecoder() {
+    }
+
+    /**
+     * Adds each '#' terminated code in footnotes to codes and its description to descriptions. A blank value adds a
+     * single null description, as does any code that is not recognized.
+     */
+    static void decodeFootnotes(String footnotes, List<String> descriptions, Set<SmartyStreetsCode> codes) {
+        if (footnotes == null || footnotes.isEmpty()) {
+            descriptions.add(null);
+            return;
+        }
+
+        int start = 0;
+        while (start < footnotes.length()) {
+            int end = footnotes.indexOf('#', start);
+            if (end < 0) {
+                descriptions.add(null);
+                return;
+            }
+
+            add(SmartyStreetsCode.forCode(footnotes, start, end + 1), descriptions, codes);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Adds each two character code in dpvFootnotes to codes and its description to descriptions. A dangling final
+     * character adds a null description, as does any code that is not recognized.
+     */
+    static void decodeDpvFootnotes(String dpvFootnotes, List<String> descriptions, Set<SmartyStreetsCode> codes) {
+        int length = dpvFootnotes.length();
+        for (int i = 0; i < length; i += 2) {
+            add(i + 1 < length ? SmartyStreetsCode.forCode(dpvFootnotes, i, i + 2) : null, descriptions, codes);
+        }
+    }
+
+    private static void add(SmartyStreetsCode code, List<String> descriptions, Set<SmartyStreetsCode> codes) {
+        if (code == null) {
+            descriptions.add(null);
+        } else {
+            descriptions.add(code.getDescription());
+            codes.add(code);
+        }
+    }
+
+}
@@ -5,24 +5,34 @@ import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 import io.csra.wily.components.service.OutputDtoInExcelFormat;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
-import org.apache.commons.lang3.text.WordUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -37,21 +47,218 @@ public class OutputDtoInExcelFormatImpl implements OutputDtoInExcelFormat {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(OutputDtoInExcelFormatImpl.class);
 	private static final String DECIMAL_DATA_FORMAT = "#0.00";
+	private static final int PARTITION_SIZE = 4096;
 
+	/**
+	 * XLS builds the whole .xls workbook in memory and is limited to 65,536 rows. XLSX_STREAMING writes an .xlsx workbook
+	 * through POI's SXSSF, keeping only a window of rows in memory and flushing the rest to temporary files.
+	 */
+	public enum Mode {
+		XLS, XLSX_STREAMING
+	}
+
+	private Mode mode = Mode.XLS;
+
+	private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+	private boolean compressTempFiles;
+
+	private boolean parallel;
+
+	private int rowsPerSheet;
+
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	@Value("${excel.export.mode:XLS}")
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * @param rowAccessWindowSize rows kept in memory in XLSX_STREAMING mode before older rows are flushed to disk
+	 */
+	@Value("${excel.export.row.window:" + SXSSFWorkbook.DEFAULT_WINDOW_SIZE + "}")
+	public void setRowAccessWindowSize(int rowAccessWindowSize) {
+		this.rowAccessWindowSize = rowAccessWindowSize;
+	}
+
+	/**
+	 * @param compressTempFiles gzip the temporary sheet files in XLSX_STREAMING mode, trading CPU for disk space
+	 */
+	@Value("${excel.export.compress.temp.files:false}")
+	public void setCompressTempFiles(boolean compressTempFiles) {
+		this.compressTempFiles = compressTempFiles;
+	}
+
+	/**
+	 * In parallel mode rows are split into partitions whose cell values are read on the fork-join pool; only creating the
+	 * cells and serializing the workbook happen on the calling thread. Output is identical to sequential mode, but rows are
+	 * written by the exporter itself, so overrides of {@code writeBody} are not called.
+	 * 
+	 * @param parallel read cell values in parallel
+	 */
+	@Value("${excel.export.parallel:false}")
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Exports with more rows than this are split across several sheets, each with its own header and requestor footer.
+	 * The limit is always capped at what the workbook format can hold.
+	 * 
+	 * @param rowsPerSheet data rows per sheet, or 0 to fill each sheet as far as the format allows
+	 */
+	@Value("${excel.export.rows.per.sheet:0}")
+	public void setRowsPerSheet(int rowsPerSheet) {
+		this.rowsPerSheet = rowsPerSheet;
+	}
+
+	/**
+	 * @param forkJoinPool pool that reads cell values in parallel mode; the common pool by default
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Each sheet's rows are written by {@link #writeBody(Workbook, Sheet, List, Field[])}, given the part of the list that
+	 * fits on that sheet.
+	 */
 	@Override
 	public <E> void write(List<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException {
+		if (parallel) {
+			exportPartitioned(dtos.iterator(), clazz, out, userName);
+		} else {
+			export(clazz, out, userName, new ListBody<>(dtos));
+		}
+	}
+
+	/**
+	 * Each sheet's rows are written by {@link #writeBody(Workbook, Sheet, Iterator, Field[])}, given an iterator that ends
+	 * when the sheet is full. The number of rows isn't known up front, so a new sheet is started as long as rows remain.
+	 */
+	@Override
+	public <E> void write(Iterator<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException {
+		if (parallel) {
+			exportPartitioned(dtos, clazz, out, userName);
+		} else {
+			export(clazz, out, userName, new IteratorBody<>(dtos));
+		}
+	}
+
+	@Override
+	public <E> void write(Stream<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException {
+		write(dtos.iterator(), clazz, out, userName);
+	}
+
+	@Override
+	public <E> void writePages(IntFunction<? extends List<E>> pages, Class<E> clazz, OutputStream out, String userName) throws IOException {
+		write(new PageIterator<>(pages), clazz, out, userName);
+	}
+
+	private void export(Class<?> clazz, OutputStream out, String userName, BodyWriter body) throws IOException {
 		Workbook workbook = null;
 		try {
-			Field[] fields = FieldUtils.getAllFields(clazz);
+			Field[] fields = DtoColumnModel.fieldsOf(clazz);
 
-			workbook = new HSSFWorkbook();
-			Sheet sheet = workbook.createSheet();
+			workbook = createWorkbook();
+			int rowsPerSheet = getRowsPerSheet(workbook.getSpreadsheetVersion());
 
-			writeHeader(sheet, fields);
-			int lastRowWritten = writeBody(workbook, sheet, dtos, fields);
-			writerRequestorInformation(sheet, lastRowWritten, userName);
+			do {
+				Sheet sheet = workbook.createSheet();
+				writeHeader(sheet, fields);
+				int lastRowWritten = body.write(workbook, sheet, fields, rowsPerSheet);
+				writerRequestorInformation(sheet, lastRowWritten, userName);
+			} while (body.hasMoreRows());
+
+			workbook.write(out);
+		} finally {
+			if (workbook != null) {
+				closeWorkbook(workbook);
+			}
+		}
+	}
+
+	/**
+	 * Reads rows in partitions on the fork-join pool and writes each partition in order, starting a new sheet whenever the
+	 * current one is full.
+	 */
+	private <E> void exportPartitioned(Iterator<E> dtos, Class<E> clazz, OutputStream out, String userName) throws IOException {
+		Workbook workbook = null;
+		Deque<ForkJoinTask<Object[]>> pending = new ArrayDeque<>();
+		try {
+			Field[] fields = DtoColumnModel.fieldsOf(clazz);
+			DtoColumnModel columns = DtoColumnModel.forFields(fields);
+
+			workbook = createWorkbook();
+			SheetWriter sheets = new SheetWriter(workbook, fields, getRowsPerSheet(workbook.getSpreadsheetVersion()), userName);
+			int maxPending = forkJoinPool.getParallelism() * 2;
+
+			while (dtos.hasNext()) {
+				List<E> partition = new ArrayList<>(PARTITION_SIZE);
+				while (partition.size() < PARTITION_SIZE && dtos.hasNext()) {
+					partition.add(dtos.next());
+				}
+
+				if (pending.size() >= maxPending) {
+					sheets.write(pending.poll().join(), columns.size());
+				}
+				pending.add(forkJoinPool.submit(() -> columns.cellValues(partition)));
+			}
+
+			while (!pending.isEmpty()) {
+				sheets.write(pending.poll().join(), columns.size());
+			}
+			sheets.finish();
 
 			workbook.write(out);
+		} finally {
+			for (ForkJoinTask<Object[]> task : pending) {
+				task.cancel(true);
+			}
+			if (workbook != null) {
+				closeWorkbook(workbook);
+			}
+		}
+	}
+
+	private int getRowsPerSheet(SpreadsheetVersion version) {
+		// Leave room for the header, the blank row and the requestor footer
+		int formatLimit = version.getMaxRows() - 3;
+		return rowsPerSheet > 0 ? Math.min(rowsPerSheet, formatLimit) : formatLimit;
+	}
+
+	/**
+	 * Creates the workbook for a single export according to the configured {@link Mode}. Override to supply a different
+	 * workbook implementation.
+	 * 
+	 * @return a new, empty workbook
+	 */
+	protected Workbook createWorkbook() {
+		if (mode == Mode.XLSX_STREAMING) {
+			SXSSFWorkbook workbook = new SXSSFWorkbook(rowAccessWindowSize);
+			workbook.setCompressTempFiles(compressTempFiles);
+			return workbook;
+		}
+
+		return new HSSFWorkbook();
+	}
+
+	/**
+	 * Closes the workbook, first deleting any temporary files a streaming workbook has written.
+	 * 
+	 * @param workbook
+	 * @throws IOException
+	 */
+	protected void closeWorkbook(Workbook workbook) throws IOException {
+		try {
+			if (workbook instanceof SXSSFWorkbook && !((SXSSFWorkbook) workbook).dispose()) {
+				LOGGER.warn("Unable to delete all temporary files of a streamed workbook");
+			}
 		} finally {
 			workbook.close();
 		}
@@ -86,18 +293,30 @@ public class OutputDtoInExcelFormatImpl implements OutputDtoInExcelFormat {
 	 * @param fields
 	 */
 	protected <E> int writeBody(Workbook workbook, Sheet sheet, List<E> dtos, Field[] fields) {
-		int cellNumber = 0;
+		return writeBody(workbook, sheet, dtos.iterator(), fields);
+	}
+
+	/**
+	 * Same as {@link #writeBody(Workbook, Sheet, List, Field[])}, pulling rows from the iterator as they are written.
+	 * 
+	 * @param workbook
+	 * @param sheet
+	 * @param dtos
+	 * @param fields
+	 */
+	protected <E> int writeBody(Workbook workbook, Sheet sheet, Iterator<E> dtos, Field[] fields) {
 		int rowNumber = 1;
 
 		Map<Class<?>, CellStyle> cellStyles = createCellStyleWithDataFormat(workbook);
+		CellStyle[] columnStyles = stylesFor(fields, cellStyles);
+		DtoColumnModel columns = DtoColumnModel.forFields(fields);
 
-		for (E dto : dtos) {
+		while (dtos.hasNext()) {
+			E dto = dtos.next();
 			Row row = sheet.createRow(rowNumber++);
-			cellNumber = 0;
 
-			for (Field field : fields) {
-				Cell cell = row.createCell(cellNumber++);
-				copyDtoValueToCell(dto, field, cell, cellStyles);
+			for (int cellNumber = 0; cellNumber < fields.length; cellNumber++) {
+				setCell(row.createCell(cellNumber), columns.cellValue(dto, cellNumber), columnStyles[cellNumber]);
 			}
 		}
 
@@ -140,38 +359,35 @@ public class OutputDtoInExcelFormatImpl implements OutputDtoInExcelFormat {
 	}
 
 	/**
-	 * Provided a dto and field name, reflection will be performed to pull the value from the DTO and place it into the
-	 * provided cell. Additionally a style map can
-	 * 
-	 * @param dto
-	 * @param field
-	 * @param cell
-	 * @param cellStylesMap
+	 * Puts a value from {@link DtoColumnModel#cellValue} into cell, applying style unless the value is null.
 	 */
-	private <E> void copyDtoValueToCell(E dto, Field field, Cell cell, Map<Class<?>, CellStyle> cellStylesMap) {
-		try {
-			field.setAccessible(true);
-			Object cellValue = field.get(dto);
+	private static void setCell(Cell cell, Object value, CellStyle style) {
+		if (value == null) {
+			cell.setCellValue("");
+			return;
+		}
 
-			if (cellValue == null) {
-				cell.setCellValue("");
-				return;
-			}
+		if (style != null) {
+			cell.setCellStyle(style);
+		}
 
-			if (cellStylesMap.get(field.getType()) != null) {
-				cell.setCellStyle(cellStylesMap.get(field.getType()));
-			}
+		if (value instanceof Double) {
+			cell.setCellValue((Double) value);
+		} else {
+			cell.setCellValue((String) value);
+		}
+	}
 
-			if (Boolean.class.equals(field.getType())) {
-				cell.setCellValue(((Boolean) cellValue) ? "Y" : "N");
-			} else if (BigDecimal.class.equals(field.getType())) {
-				cell.setCellValue(((BigDecimal) cellValue).doubleValue());
-			} else {
-				cell.setCellValue(cellValue.toString());
-			}
-		} catch (IllegalAccessException e) {
-			LOGGER.error("Illegal Access", e);
+	/**
+	 * @return the style for each column, looked up by field type
+	 */
+	private static CellStyle[] stylesFor(Field[] fields, Map<Class<?>, CellStyle> cellStylesMap) {
+		CellStyle[] styles = new CellStyle[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			styles[i] = cellStylesMap.get(fields[i].getType());
 		}
+
+		return styles;
 	}
 
 	/**
@@ -183,15 +399,183 @@ public class OutputDtoInExcelFormatImpl implements OutputDtoInExcelFormat {
 	 * @return
 	 */
 	private String getHumanReadableHeaderValue(String camelCaseFieldName) {
-		String[] words = StringUtils.splitByCharacterTypeCamelCase(camelCaseFieldName);
-		StringBuilder sb = new StringBuilder();
+		return DtoColumnModel.getHumanReadableHeaderValue(camelCaseFieldName);
+	}
+
+	/**
+	 * Lays rows of cell values out across sheets, each with the same header and footer as a single sheet export.
+	 */
+	private class SheetWriter {
+
+		private final Workbook workbook;
+		private final Field[] fields;
+		private final CellStyle[] columnStyles;
+		private final int rowsPerSheet;
+		private final String userName;
+
+		private Sheet sheet;
+		private int rowNumber;
+
+		SheetWriter(Workbook workbook, Field[] fields, int rowsPerSheet, String userName) {
+			this.workbook = workbook;
+			this.fields = fields;
+			this.columnStyles = stylesFor(fields, createCellStyleWithDataFormat(workbook));
+			this.rowsPerSheet = rowsPerSheet;
+			this.userName = userName;
+		}
+
+		void write(Object[] values, int columns) {
+			for (int start = 0; start < values.length; start += columns) {
+				if (sheet == null || rowNumber > rowsPerSheet) {
+					nextSheet();
+				}
+
+				Row row = sheet.createRow(rowNumber++);
+				for (int cellNumber = 0; cellNumber < columns; cellNumber++) {
+					setCell(row.createCell(cellNumber), values[start + cellNumber], columnStyles[cellNumber]);
+				}
+			}
+		}
+
+		void finish() {
+			if (sheet == null) {
+				nextSheet();
+			}
+			writerRequestorInformation(sheet, rowNumber, userName);
+		}
+
+		private void nextSheet() {
+			if (sheet != null) {
+				writerRequestorInformation(sheet, rowNumber, userName);
+			}
+
+			sheet = workbook.createSheet();
+			writeHeader(sheet, fields);
+			rowNumber = 1;
+		}
+	}
+
+	/**
+	 * Writes the rows of one sheet at a time.
+	 */
+	private interface BodyWriter {
 
-		for (String word : words) {
-			sb.append(WordUtils.capitalize(word));
-			sb.append(" ");
+		/**
+		 * @return the row after the last one written, as {@code writeBody} returns it
+		 */
+		int write(Workbook workbook, Sheet sheet, Field[] fields, int rowsPerSheet);
+
+		boolean hasMoreRows();
+	}
+
+	private class ListBody<E> implements BodyWriter {
+
+		private final List<E> dtos;
+		private int from;
+
+		ListBody(List<E> dtos) {
+			this.dtos = dtos;
+		}
+
+		@Override
+		public int write(Workbook workbook, Sheet sheet, Field[] fields, int rowsPerSheet) {
+			int to = Math.min(from + rowsPerSheet, dtos.size());
+			List<E> rows = from == 0 && to == dtos.size() ? dtos : dtos.subList(from, to);
+			from = to;
+
+			return writeBody(workbook, sheet, rows, fields);
+		}
+
+		@Override
+		public boolean hasMoreRows() {
+			return from < dtos.size();
+		}
+	}
+
+	private class IteratorBody<E> implements BodyWriter {
+
+		private final Iterator<E> dtos;
+
+		IteratorBody(Iterator<E> dtos) {
+			this.dtos = dtos;
+		}
+
+		@Override
+		public int write(Workbook workbook, Sheet sheet, Field[] fields, int rowsPerSheet) {
+			return writeBody(workbook, sheet, new LimitedIterator<>(dtos, rowsPerSheet), fields);
+		}
+
+		@Override
+		public boolean hasMoreRows() {
+			return dtos.hasNext();
+		}
+	}
+
+	/**
+	 * Ends after a given number of rows, leaving the rest in the underlying iterator.
+	 */
+	private static class LimitedIterator<E> implements Iterator<E> {
+
+		private final Iterator<E> dtos;
+		private int remaining;
+
+		LimitedIterator(Iterator<E> dtos, int limit) {
+			this.dtos = dtos;
+			this.remaining = limit;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return remaining > 0 && dtos.hasNext();
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			remaining--;
+			return dtos.next();
 		}
+	}
 
-		return sb.toString().trim();
+	/**
+	 * Walks the rows of each page in turn, fetching the next page only once the current one is exhausted.
+	 */
+	private static class PageIterator<E> implements Iterator<E> {
+
+		private final IntFunction<? extends List<E>> pages;
+		private int nextPage;
+		private Iterator<E> current = Collections.emptyIterator();
+		private boolean exhausted;
+
+		PageIterator(IntFunction<? extends List<E>> pages) {
+			this.pages = pages;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!current.hasNext() && !exhausted) {
+				List<E> page = pages.apply(nextPage++);
+				if (page == null || page.isEmpty()) {
+					exhausted = true;
+				} else {
+					current = page.iterator();
+				}
+			}
+
+			return current.hasNext();
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return current.next();
+		}
 	}
 
-}
+}
\ No newline at end of file
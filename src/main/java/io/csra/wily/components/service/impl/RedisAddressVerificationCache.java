@@ -0,0 +1,130 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.CachedAddressResultDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link io.csra.wily.components.service.AddressVerificationCache} shared by every node through Redis. Size is bounded by
+ * the Redis server's own maxmemory policy, so evictions are not visible here; time-to-live is applied per key.
+ *
+ * A Redis outage degrades to a cache miss rather than failing the verification, and so does an entry that can no longer
+ * be deserialized (for example one written by an incompatible version); such an entry is deleted.
+ */
+public class RedisAddressVerificationCache extends AbstractAddressVerificationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisAddressVerificationCache.class);
+    private static final String DEFAULT_KEY_PREFIX = "wily:address:";
+
+    /**
+     * Keys requested per SCAN call, and deleted per DEL call, when clearing the cache.
+     */
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, CachedAddressResultDTO> redisTemplate;
+    private final String keyPrefix;
+
+    public RedisAddressVerificationCache(RedisConnectionFactory connectionFactory, Duration timeToLive, Duration negativeTimeToLive) {
+        this(connectionFactory, DEFAULT_KEY_PREFIX, timeToLive, negativeTimeToLive);
+    }
+
+    public RedisAddressVerificationCache(RedisConnectionFactory connectionFactory, String keyPrefix, Duration timeToLive, Duration negativeTimeToLive) {
+        super(timeToLive, negativeTimeToLive);
+        this.keyPrefix = keyPrefix;
+
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(new StringRedisSerializer());
+        this.redisTemplate.setValueSerializer(new JdkSerializationRedisSerializer(getClass().getClassLoader()));
+        this.redisTemplate.afterPropertiesSet();
+    }
+
+    @Override
+    protected CachedAddressResultDTO load(String key) {
+        try {
+            return redisTemplate.opsForValue().get(keyPrefix + key);
+        } catch (SerializationException e) {
+            LOGGER.warn("Discarding unreadable address verification cache entry", e);
+            remove(key);
+            return null;
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to read address verification cache", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected void store(String key, CachedAddressResultDTO entry, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(keyPrefix + key, entry, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to write address verification cache", e);
+        }
+    }
+
+    @Override
+    protected void remove(String key) {
+        try {
+            redisTemplate.delete(keyPrefix + key);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to remove from address verification cache", e);
+        }
+    }
+
+    /**
+     * Deletes this cache's keys with SCAN rather than KEYS, so a shared Redis is never blocked while the keyspace is
+     * walked. Keys written while the scan runs may survive it.
+     */
+    @Override
+    public void clear() {
+        try {
+            redisTemplate.execute((RedisCallback<Void>) this::deleteAll);
+        } catch (DataAccessException e) {
+            LOGGER.warn("Unable to clear address verification cache", e);
+        }
+    }
+
+    private Void deleteAll(RedisConnection connection) {
+        ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(CLEAR_BATCH_SIZE).build();
+        List<byte[]> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+
+        Cursor<byte[]> cursor = connection.scan(options);
+        try {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    connection.del(batch.toArray(new byte[0][]));
+                    batch.clear();
+                }
+            }
+        } finally {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                LOGGER.debug("Unable to close scan cursor", e);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            connection.del(batch.toArray(new byte[0][]));
+        }
+        return null;
+    }
+
+}
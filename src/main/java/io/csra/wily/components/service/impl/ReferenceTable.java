@@ -0,0 +1,159 @@
+package io.csra.wily.components.service.impl;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+/**
+ * One reference list, parsed once: its pairs in property order and in key order, both unmodifiable, so they can be
+ * handed to every caller without copying. Also built at parse time are a case-insensitive index from description to
+ * key, and the pairs sorted by lower-cased description so that the pairs whose description starts with a prefix are a
+ * contiguous run, found by binary search and returned as a view.
+ */
+final class ReferenceTable {
+
+    static final ReferenceTable EMPTY = new ReferenceTable(new LinkedHashMap<>());
+
+    private final Map<String, String> references;
+    private final Map<String, String> orderedReferences;
+
+    /**
+     * Lower-cased description to key; the first key in property order wins when descriptions repeat.
+     */
+    private final Map<String, String> keysByDescription;
+
+    /**
+     * Lower-cased descriptions in ascending order, and the pair each one belongs to at the same index.
+     */
+    private final String[] sortedDescriptions;
+    private final List<Map.Entry<String, String>> byDescription;
+
+    private ReferenceTable(LinkedHashMap<String, String> references) {
+        this.references = Collections.unmodifiableMap(references);
+        this.orderedReferences = Collections.unmodifiableSortedMap(new TreeMap<>(references));
+
+        keysByDescription = new HashMap<>(references.size() * 4 / 3 + 1);
+        List<Map.Entry<String, String>> entries = new ArrayList<>(references.size());
+        for (Map.Entry<String, String> reference : references.entrySet()) {
+            keysByDescription.putIfAbsent(lowerCase(reference.getValue()), reference.getKey());
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(reference));
+        }
+
+        entries.sort(Comparator.comparing((Map.Entry<String, String> entry) -> lowerCase(entry.getValue()))
+                .thenComparing(Map.Entry::getKey));
+        sortedDescriptions = new String[entries.size()];
+        for (int i = 0; i < sortedDescriptions.length; i++) {
+            sortedDescriptions[i] = lowerCase(entries.get(i).getValue());
+        }
+        byDescription = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Parses "key{keyValueDelimiter}value{pairDelimiter}key{keyValueDelimiter}value...". Every character of a delimiter
+     * counts as a separator on its own, empty pairs are skipped, and a later pair replaces an earlier one with the same
+     * key.
+     */
+    static ReferenceTable parse(String referenceList, String pairDelimiter, String keyValueDelimiter) {
+        if (StringUtils.isBlank(referenceList)) {
+            return EMPTY;
+        }
+
+        LinkedHashMap<String, String> references = new LinkedHashMap<>();
+        if (referenceList.contains(pairDelimiter)) {
+            StringTokenizer tokenizer = new StringTokenizer(referenceList, pairDelimiter, false);
+            while (tokenizer.hasMoreTokens()) {
+                addReferencePair(tokenizer.nextToken(), keyValueDelimiter, references);
+            }
+        } else {
+            addReferencePair(referenceList, keyValueDelimiter, references);
+        }
+
+        return new ReferenceTable(references);
+    }
+
+    Map<String, String> getReferences() {
+        return references;
+    }
+
+    Map<String, String> getOrderedReferences() {
+        return orderedReferences;
+    }
+
+    /**
+     * @return the key whose description equals description, ignoring case, or null
+     */
+    String getKey(String description) {
+        return description == null ? null : keysByDescription.get(lowerCase(description));
+    }
+
+    /**
+     * @return the pairs whose description starts with prefix, ignoring case, ordered by description; a view, not a copy
+     */
+    List<Map.Entry<String, String>> findByDescriptionPrefix(String prefix) {
+        if (StringUtils.isEmpty(prefix)) {
+            return byDescription;
+        }
+
+        String lowerPrefix = lowerCase(prefix);
+        int from = firstIndex(lowerPrefix, 0);
+        int to = firstIndex(lowerPrefix, 1);
+        return byDescription.subList(from, to);
+    }
+
+    /**
+     * Binary search for the first description that compares at or above prefix: with threshold 0 that is the first
+     * description starting with prefix, with threshold 1 the first one past them.
+     */
+    private int firstIndex(String prefix, int threshold) {
+        int low = 0;
+        int high = sortedDescriptions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparePrefix(sortedDescriptions[middle], prefix) < threshold) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return zero if description starts with prefix, otherwise how the start of description orders against prefix
+     */
+    private static int comparePrefix(String description, String prefix) {
+        int length = Math.min(description.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            char a = description.charAt(i);
+            char b = prefix.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+
+        return description.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static String lowerCase(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static void addReferencePair(String referencePair, String keyValueDelimiter, Map<String, String> references) {
+        if (referencePair.contains(keyValueDelimiter)) {
+            StringTokenizer tokenizer = new StringTokenizer(referencePair, keyValueDelimiter, false);
+            references.put(tokenizer.nextToken(), tokenizer.nextToken());
+        }
+    }
+
+}
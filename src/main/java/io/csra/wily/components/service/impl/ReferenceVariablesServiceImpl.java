@@ -2,37 +2,48 @@ package io.csra.wily.components.service.impl;
 
 import io.csra.wily.components.service.ReferenceVariablesService;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Reference lists are parsed from the Environment the first time each refType is asked for and kept as unmodifiable
+ * maps until {@link #refresh()} is called or the environment changes. Spring Cloud's EnvironmentChangeEvent (sent by a
+ * configuration refresh) is recognised by name, so Spring Cloud stays optional.
+ */
 @Component("referenceService")
 public class ReferenceVariablesServiceImpl implements ReferenceVariablesService {
 
-    private String pairDelimiter;
-    private String keyValueDelimiter;
+    private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
     private Environment environment;
 
+    private volatile Tables tables;
+
     public ReferenceVariablesServiceImpl(Environment environment) {
         this.environment = environment;
-        this.pairDelimiter = this.environment.getProperty("delimiter.pair");
-        this.keyValueDelimiter = this.environment.getProperty("delimiter.keyValue");
+        this.tables = new Tables(environment);
     }
 
     @Override
     public Map<String, String> getReferences(String refType) {
-        return parseProperty(environment.getProperty(refType), false);
+        return table(refType).getReferences();
     }
 
     @Override
     public Map<String, String> getOrderedReferences(String refType) {
-        return parseProperty(environment.getProperty(refType), true);
+        return table(refType).getOrderedReferences();
     }
 
     @Override
     public String getValue(String key, String refType) {
-        String description = getReferences(refType).get(key);
+        String description = table(refType).getReferences().get(key);
         if(StringUtils.isBlank(description)) {
             description = "Unknown";
         }
@@ -40,35 +51,60 @@ public class ReferenceVariablesServiceImpl implements ReferenceVariablesService
         return description;
     }
 
-    private Map<String, String> parseProperty(String referenceList, boolean ordered) {
-        Map<String, String> references = initMap(ordered);
-
-        if(StringUtils.isNotBlank(referenceList)) {
-            if (referenceList.contains(pairDelimiter)) {
-                StringTokenizer tokenizer = new StringTokenizer(referenceList, pairDelimiter, false);
-                while(tokenizer.hasMoreTokens()) {
-                    addReferencePair(tokenizer.nextToken(), references);
-                }
-            } else {
-                addReferencePair(referenceList, references);
-            }
-        }
+    @Override
+    public String getKey(String description, String refType) {
+        return table(refType).getKey(description);
+    }
+
+    @Override
+    public List<Map.Entry<String, String>> findReferencesByPrefix(String prefix, String refType) {
+        return table(refType).findByDescriptionPrefix(prefix);
+    }
 
-        return references;
+    /**
+     * Drops every parsed list and re-reads the delimiters; lists are parsed again from the Environment when next used.
+     */
+    public void refresh() {
+        tables = new Tables(environment);
     }
 
-    private Map<String, String> initMap(boolean ordered) {
-        if(ordered) {
-            return new TreeMap<>();
+    /**
+     * Drops one parsed list, to be parsed again from the Environment when next used.
+     */
+    public void refresh(String refType) {
+        tables.byRefType.remove(refType);
+    }
+
+    @EventListener
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (ENVIRONMENT_CHANGE_EVENT.equals(event.getClass().getName())) {
+            refresh();
         }
+    }
 
-        return new LinkedHashMap<>();
+    private ReferenceTable table(String refType) {
+        Tables current = tables;
+        ReferenceTable table = current.byRefType.get(refType);
+        if (table == null) {
+            table = current.byRefType.computeIfAbsent(refType,
+                    type -> ReferenceTable.parse(environment.getProperty(type), current.pairDelimiter, current.keyValueDelimiter));
+        }
+
+        return table;
     }
 
-    private void addReferencePair(String referencePair, Map<String, String> references) {
-        if(referencePair.contains(keyValueDelimiter)) {
-            StringTokenizer tokenizer = new StringTokenizer(referencePair, keyValueDelimiter, false);
-            references.put(tokenizer.nextToken(), tokenizer.nextToken());
+    /**
+     * Parsed lists together with the delimiters they were parsed with, replaced as a whole on refresh.
+     */
+    private static final class Tables {
+
+        private final String pairDelimiter;
+        private final String keyValueDelimiter;
+        private final ConcurrentMap<String, ReferenceTable> byRefType = new ConcurrentHashMap<>();
+
+        Tables(Environment environment) {
+            this.pairDelimiter = environment.getProperty("delimiter.pair");
+            this.keyValueDelimiter = environment.getProperty("delimiter.keyValue");
         }
     }
 }
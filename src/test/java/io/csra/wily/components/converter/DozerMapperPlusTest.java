@@ -0,0 +1,393 @@
+package io.csra.wily.components.converter;
+
+import com.github.dozermapper.core.DozerBeanMapperBuilder;
+import com.github.dozermapper.core.Mapper;
+import com.github.dozermapper.core.loader.api.BeanMappingBuilder;
+import io.csra.wily.components.model.MappingStatisticsDTO;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DozerMapperPlusTest {
+
+    private final DozerMapperPlus mapper = new DozerMapperPlus(DozerBeanMapperBuilder.buildDefault());
+
+    @Test
+    public void parallelMappingKeepsSourceOrder() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            mapper.setParallelThreshold(1000);
+            mapper.setForkJoinPool(pool);
+
+            List<Source> source = sources(5000);
+            List<Destination> destination = mapper.mapList(source, Destination.class);
+
+            assertEquals(source.size(), destination.size());
+            for (int i = 0; i < source.size(); i++) {
+                assertEquals(source.get(i).getName(), destination.get(i).getName());
+                assertEquals(i, destination.get(i).getCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void mapsIterablesAndStreams() {
+        Set<Source> source = new LinkedHashSet<>(sources(3));
+
+        List<Destination> fromIterable = mapper.mapList(source, Destination.class);
+        assertEquals("item-2", fromIterable.get(2).getName());
+
+        List<String> fromStream = mapper.mapStream(Stream.of(new Source("a", 1), null), Destination.class)
+                .map(d -> d == null ? null : d.getName())
+                .collect(Collectors.toList());
+        assertEquals("a", fromStream.get(0));
+        assertNull(fromStream.get(1));
+    }
+
+    @Test
+    public void fastPathMatchesDozer() {
+        Mapper dozer = DozerBeanMapperBuilder.create().withCustomConverter(new BooleanStringConverter()).build();
+        DozerMapperPlus fastPath = new DozerMapperPlus(dozer);
+        fastPath.setFastPathEnabled(true);
+
+        String[] flags = {"Yes", "No", null};
+        Boolean[] actives = {Boolean.TRUE, Boolean.FALSE, null};
+        for (String flag : flags) {
+            for (Boolean active : actives) {
+                Flags source = new Flags();
+                source.setName(flag == null ? null : "name-" + flag);
+                source.setCount(7);
+                source.setFlag(flag);
+                source.setActive(active);
+                source.setEnabled(active != null && active);
+                source.setAmount(active == null ? null : new BigDecimal("12.50"));
+                source.setUnit(active == null ? null : TimeUnit.SECONDS);
+
+                FlagsDTO expected = dozer.map(source, FlagsDTO.class);
+                FlagsDTO actual = fastPath.map(source, FlagsDTO.class);
+
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getCount(), actual.getCount());
+                assertEquals(expected.getFlag(), actual.getFlag());
+                assertEquals(expected.getActive(), actual.getActive());
+                assertEquals(expected.getEnabled(), actual.getEnabled());
+                assertEquals(expected.getAmount(), actual.getAmount());
+                assertEquals(expected.getUnit(), actual.getUnit());
+            }
+        }
+
+        assertTrue(fastPath.isCompiled(Flags.class, FlagsDTO.class));
+    }
+
+    @Test
+    public void fastPathFallsBackToDozerForOtherTypes() {
+        mapper.setFastPathEnabled(true);
+
+        // int to long needs Dozer's conversion
+        Destination destination = mapper.map(new Source("a", 3), Destination.class);
+
+        assertEquals(3, destination.getCount());
+        assertFalse(mapper.isCompiled(Source.class, Destination.class));
+    }
+
+    @Test
+    public void fastPathLeavesExplicitMappingsToDozer() {
+        Mapper dozer = DozerBeanMapperBuilder.create()
+                .withMappingBuilder(new BeanMappingBuilder() {
+                    @Override
+                    protected void configure() {
+                        mapping(Flags.class, FlagsDTO.class).exclude("name");
+                    }
+                })
+                .build();
+        DozerMapperPlus fastPath = new DozerMapperPlus(dozer);
+        fastPath.setFastPathEnabled(true);
+
+        Flags source = new Flags();
+        source.setName("excluded");
+        source.setCount(2);
+
+        FlagsDTO destination = fastPath.map(source, FlagsDTO.class);
+
+        assertNull(destination.getName());
+        assertEquals(2, destination.getCount());
+        assertFalse(fastPath.isCompiled(Flags.class, FlagsDTO.class));
+    }
+
+    @Test
+    public void recordsMetricsPerMapping() {
+        InMemoryMappingMetrics metrics = new InMemoryMappingMetrics();
+        mapper.setMetricsSink(metrics);
+
+        for (int i = 0; i < 3; i++) {
+            mapper.map(new Source("a", i), Destination.class);
+        }
+        mapper.mapList(sources(10), Destination.class);
+        mapper.map(null, Destination.class);
+
+        List<MappingStatisticsDTO> statistics = metrics.getHotMappings(5);
+        assertEquals(1, statistics.size());
+
+        MappingStatisticsDTO mapping = statistics.get(0);
+        assertEquals(Source.class.getName(), mapping.getSourceClass());
+        assertEquals(Destination.class.getName(), mapping.getDestinationClass());
+        assertEquals(3, mapping.getCalls());
+        assertEquals(1, mapping.getListCalls());
+        assertEquals(13, mapping.getItems());
+        assertEquals(10, mapping.getMaxListSize());
+        assertTrue(mapping.getTotalNanos() > 0);
+        assertTrue(mapping.getP50Micros() <= mapping.getP99Micros());
+        assertTrue(mapping.getP99Micros() <= mapping.getMaxMicros() * 1.125);
+    }
+
+    @Test
+    public void recordsMetricsForIterablesThatCanOnlyBeIteratedOnce() {
+        InMemoryMappingMetrics metrics = new InMemoryMappingMetrics();
+        mapper.setMetricsSink(metrics);
+
+        Iterable<Source> source = sources(3).stream()::iterator;
+        List<Destination> destination = mapper.mapList(source, Destination.class);
+
+        assertEquals(3, destination.size());
+        MappingStatisticsDTO mapping = metrics.getHotMappings(1).get(0);
+        assertEquals(Source.class.getName(), mapping.getSourceClass());
+        assertEquals(3, mapping.getItems());
+    }
+
+    @Test
+    public void listTimingsAreKeptApartFromSingleMappings() {
+        InMemoryMappingMetrics metrics = new InMemoryMappingMetrics();
+        for (int i = 0; i < 10; i++) {
+            metrics.recordMap(Source.class, Destination.class, null, 1000);
+        }
+        metrics.recordList(Source.class, Destination.class, null, 1000000, 1000);
+
+        MappingStatisticsDTO mapping = metrics.getHotMappings(1).get(0);
+        assertEquals(1, mapping.getP99Micros(), 0.125);
+        assertEquals(1, mapping.getMaxMicros(), 0);
+        assertEquals(1000, mapping.getListP50Micros(), 125);
+        assertEquals(1000, mapping.getListMaxMicros(), 0);
+        assertEquals(1010000, mapping.getTotalNanos());
+    }
+
+    @Test
+    public void histogramBucketsStayWithinAnEighth() {
+        int previous = -1;
+        for (long nanos = 1; nanos < 1L << 40; nanos += 1 + nanos / 7) {
+            int bucket = InMemoryMappingMetrics.bucket(nanos);
+            assertTrue(bucket >= previous);
+            assertTrue(Math.abs(InMemoryMappingMetrics.bucketValue(bucket) - nanos) <= nanos / 8d + 0.5);
+            previous = bucket;
+        }
+    }
+
+    private List<Source> sources(int count) {
+        List<Source> sources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sources.add(new Source("item-" + i, i));
+        }
+        return sources;
+    }
+
+    public static class Source {
+
+        private String name;
+        private int count;
+
+        public Source() {
+        }
+
+        Source(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    public static class Flags {
+
+        private String name;
+        private int count;
+        private String flag;
+        private Boolean active;
+        private boolean enabled;
+        private BigDecimal amount;
+        private TimeUnit unit;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getFlag() {
+            return flag;
+        }
+
+        public void setFlag(String flag) {
+            this.flag = flag;
+        }
+
+        public Boolean getActive() {
+            return active;
+        }
+
+        public void setActive(Boolean active) {
+            this.active = active;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    public static class FlagsDTO {
+
+        private String name;
+        private int count;
+        private String flag;
+        private String active;
+        private String enabled;
+        private BigDecimal amount;
+        private TimeUnit unit;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getFlag() {
+            return flag;
+        }
+
+        public void setFlag(String flag) {
+            this.flag = flag;
+        }
+
+        public String getActive() {
+            return active;
+        }
+
+        public void setActive(String active) {
+            this.active = active;
+        }
+
+        public String getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(String enabled) {
+            this.enabled = enabled;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public TimeUnit getUnit() {
+            return unit;
+        }
+
+        public void setUnit(TimeUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    public static class Destination {
+
+        private String name;
+        private long count;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package io.csra.wily.components.geo;
+
+import io.csra.wily.components.model.CoordinatesDTO;
+import io.csra.wily.components.service.impl.AddressServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CoordinatesIndexTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final AddressServiceImpl addressService = new AddressServiceImpl();
+    private final Random random = new Random(42);
+
+    private List<CoordinatesDTO> points;
+    private CoordinatesIndex index;
+
+    @Before
+    public void setUp() {
+        points = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            points.add(new CoordinatesDTO(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        // Clusters around the antimeridian and a pole, where naive latitude/longitude boxes go wrong
+        for (int i = 0; i < 2000; i++) {
+            points.add(new CoordinatesDTO(random.nextDouble() * 10 - 5, 175 + random.nextDouble() * 10 - (i % 2 == 0 ? 0 : 360)));
+            points.add(new CoordinatesDTO(85 + random.nextDouble() * 5, random.nextDouble() * 360 - 180));
+        }
+
+        index = CoordinatesIndex.of(points);
+    }
+
+    @Test
+    public void nearestMatchesLinearScan() {
+        for (CoordinatesDTO origin : queries()) {
+            double[] expected = sortedDistances(origin);
+            int[] nearest = index.nearest(origin, 25);
+
+            assertEquals(25, nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                assertEquals(expected[i], distance(origin, nearest[i]), TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void withinRadiusMatchesLinearScan() {
+        for (CoordinatesDTO origin : queries()) {
+            double[] expected = Arrays.stream(sortedDistances(origin)).filter(d -> d <= 300).toArray();
+            int[] found = index.withinRadius(origin, 300);
+
+            double[] actual = new double[found.length];
+            for (int i = 0; i < found.length; i++) {
+                actual[i] = distance(origin, found[i]);
+            }
+            assertArrayEquals(expected, actual, TOLERANCE);
+        }
+    }
+
+    @Test
+    public void nearestReturnsEveryPointWhenKExceedsSize() {
+        CoordinatesIndex small = new CoordinatesIndex(new double[]{1, 2, 3}, new double[]{1, 2, 3});
+
+        assertArrayEquals(new int[]{0, 1, 2}, small.nearest(0, 0, 10));
+    }
+
+    private List<CoordinatesDTO> queries() {
+        List<CoordinatesDTO> queries = new ArrayList<>();
+        queries.add(new CoordinatesDTO(0, 179.9));
+        queries.add(new CoordinatesDTO(0, -179.9));
+        queries.add(new CoordinatesDTO(89.9, 0));
+        queries.add(new CoordinatesDTO(-89.9, 45));
+        for (int i = 0; i < 50; i++) {
+            queries.add(new CoordinatesDTO(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+
+        return queries;
+    }
+
+    private double[] sortedDistances(CoordinatesDTO origin) {
+        double[] distances = new double[points.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = distance(origin, i);
+        }
+        Arrays.sort(distances);
+
+        return distances;
+    }
+
+    private double distance(CoordinatesDTO origin, int position) {
+        return addressService.distanceBetween(origin, points.get(position));
+    }
+
+}
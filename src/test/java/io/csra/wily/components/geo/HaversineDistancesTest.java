@@ -0,0 +1,103 @@
+package io.csra.wily.components.geo;
+
+import io.csra.wily.components.model.CoordinatesDTO;
+import io.csra.wily.components.service.impl.AddressServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class HaversineDistancesTest {
+
+    private static final double TOLERANCE = 1e-7;
+
+    private final AddressServiceImpl addressService = new AddressServiceImpl();
+    private final Random random = new Random(7);
+
+    private double[] fromLatitudes;
+    private double[] fromLongitudes;
+    private double[] toLatitudes;
+    private double[] toLongitudes;
+
+    @Before
+    public void setUp() {
+        fromLatitudes = randomLatitudes(300);
+        fromLongitudes = randomLongitudes(300);
+        toLatitudes = randomLatitudes(700);
+        toLongitudes = randomLongitudes(700);
+
+        // Identical and nearly identical points, where a careless formula loses all precision
+        toLatitudes[0] = fromLatitudes[0];
+        toLongitudes[0] = fromLongitudes[0];
+        toLatitudes[1] = fromLatitudes[0] + 1e-6;
+        toLongitudes[1] = fromLongitudes[0];
+    }
+
+    @Test
+    public void oneToManyMatchesScalarDistance() {
+        double[] out = new double[toLatitudes.length];
+
+        HaversineDistances.oneToMany(fromLatitudes[0], fromLongitudes[0], HaversineDistances.prepare(toLatitudes, toLongitudes), out);
+
+        for (int j = 0; j < toLatitudes.length; j++) {
+            assertEquals(scalar(0, j), out[j], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void manyToManyMatchesScalarDistance() {
+        double[] out = new double[fromLatitudes.length * toLatitudes.length];
+
+        HaversineDistances.manyToMany(HaversineDistances.prepare(fromLatitudes, fromLongitudes),
+                HaversineDistances.prepare(toLatitudes, toLongitudes), out);
+
+        for (int i = 0; i < fromLatitudes.length; i++) {
+            for (int j = 0; j < toLatitudes.length; j++) {
+                assertEquals(scalar(i, j), out[i * toLatitudes.length + j], TOLERANCE);
+            }
+        }
+    }
+
+    @Test
+    public void parallelManyToManyMatchesSequential() {
+        PreparedCoordinates from = HaversineDistances.prepare(fromLatitudes, fromLongitudes);
+        PreparedCoordinates to = HaversineDistances.prepare(toLatitudes, toLongitudes);
+        double[] sequential = new double[from.size() * to.size()];
+        double[] parallel = new double[from.size() * to.size()];
+
+        HaversineDistances.manyToMany(from, to, sequential);
+        HaversineDistances.manyToManyParallel(from, to, parallel);
+
+        assertArrayEquals(sequential, parallel, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOutputArrayThatIsTooSmall() {
+        HaversineDistances.oneToMany(0, 0, HaversineDistances.prepare(toLatitudes, toLongitudes), new double[1]);
+    }
+
+    private double scalar(int i, int j) {
+        return addressService.distanceBetween(new CoordinatesDTO(fromLatitudes[i], fromLongitudes[i]),
+                new CoordinatesDTO(toLatitudes[j], toLongitudes[j]));
+    }
+
+    private double[] randomLatitudes(int count) {
+        double[] latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            latitudes[i] = random.nextDouble() * 180 - 90;
+        }
+        return latitudes;
+    }
+
+    private double[] randomLongitudes(int count) {
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = random.nextDouble() * 360 - 180;
+        }
+        return longitudes;
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.csra.wily.components.io;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvReaderTest {
+
+    @Test
+    public void acceptsAnyLineEnding() throws Exception {
+        try (CsvReader reader = new CsvReader(new StringReader("a,b\r\nc,d\ne,f\rg,\"h\"\r\n"))) {
+            assertArrayEquals(new String[] {"a", "b"}, reader.readRow());
+            assertArrayEquals(new String[] {"c", "d"}, reader.readRow());
+            assertArrayEquals(new String[] {"e", "f"}, reader.readRow());
+            assertArrayEquals(new String[] {"g", "h"}, reader.readRow());
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    public void keepsEmptyFields() throws Exception {
+        try (CsvReader reader = new CsvReader(new StringReader(",x,,\"\"\n"))) {
+            assertArrayEquals(new String[] {"", "x", "", ""}, reader.readRow());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnterminatedQuote() throws Exception {
+        try (CsvReader reader = new CsvReader(new StringReader("a,\"b\n"))) {
+            reader.readRow();
+        }
+    }
+
+}
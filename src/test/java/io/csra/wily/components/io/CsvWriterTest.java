@@ -0,0 +1,64 @@
+package io.csra.wily.components.io;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvWriterTest {
+
+    @Test
+    public void quotesOnlyFieldsThatNeedIt() throws Exception {
+        StringWriter out = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.writeRecord("plain", "a,b", "say \"hi\"", "two\nlines", null, "");
+            writer.writeField(-1234567890123L);
+            writer.writeField(Long.MIN_VALUE);
+            writer.writeField('"');
+            writer.writeField(',');
+            writer.endRecord();
+        }
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,\r\n"
+                + "-1234567890123,-9223372036854775808,\"\"\"\",\",\"\r\n", out.toString());
+    }
+
+    @Test
+    public void roundTripsThroughReader() throws Exception {
+        String[][] records = {
+                {"id", "street", "notes"},
+                {"1", "1 Main St, Apt \"B\"", "line one\r\nline two"},
+                {"2", "", "\t,\"\r"},
+                {"3", longValue(20000), "end"}
+        };
+
+        for (char delimiter : new char[] {',', '\t'}) {
+            StringWriter out = new StringWriter();
+            try (CsvWriter writer = new CsvWriter(out, delimiter)) {
+                for (String[] record : records) {
+                    writer.writeRecord(record);
+                }
+            }
+
+            try (CsvReader reader = new CsvReader(new StringReader(out.toString()), delimiter)) {
+                for (String[] record : records) {
+                    assertArrayEquals(record, reader.readRow());
+                }
+                assertNull(reader.readRow());
+            }
+        }
+    }
+
+    private static String longValue(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+}
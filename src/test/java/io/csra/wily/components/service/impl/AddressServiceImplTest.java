@@ -0,0 +1,348 @@
+package io.csra.wily.components.service.impl;
+
+import com.smartystreets.api.exceptions.SmartyException;
+import com.smartystreets.api.us_street.Batch;
+import com.smartystreets.api.us_street.Candidate;
+import com.smartystreets.api.us_street.Client;
+import com.smartystreets.api.us_street.Lookup;
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AddressServiceImplTest {
+
+    private static final String NO_MATCH = "NO MATCH";
+
+    private StubClient client;
+    private AddressServiceImpl addressService;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        client = new StubClient();
+        addressService = new AddressServiceImpl();
+        addressService.setSmartyStreetsClient(client);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void checkAddressesSplitsLargeListsIntoVendorSizedBatches() throws Exception {
+        List<AddressResultDTO> results = addressService.checkAddresses(inputs(250));
+
+        assertEquals(3, client.batchSizes.size());
+        for (int size : client.batchSizes) {
+            assertTrue(size <= Batch.MAX_BATCH_SIZE);
+        }
+        assertInputOrder(results, 250);
+    }
+
+    @Test
+    public void checkAddressesSendsBatchesInParallelWithinConcurrencyLimit() throws Exception {
+        executor = Executors.newFixedThreadPool(8);
+        addressService.setAddressVerificationExecutor(executor);
+        addressService.setMaxConcurrentBatches(3);
+        client.delayMillis = 20;
+
+        List<AddressResultDTO> results = addressService.checkAddresses(inputs(1234));
+
+        assertEquals(13, client.batchSizes.size());
+        assertTrue(client.maxInFlight.get() > 1);
+        assertTrue(client.maxInFlight.get() <= 3);
+        assertInputOrder(results, 1234);
+    }
+
+    @Test
+    public void checkAddressesReturnsNullForAddressesWithoutCandidate() throws Exception {
+        List<AddressInputDTO> inputs = inputs(3);
+        inputs.get(1).setStreet(NO_MATCH);
+
+        List<AddressResultDTO> results = addressService.checkAddresses(inputs);
+
+        assertEquals(3, results.size());
+        assertEquals("0", results.get(0).getInputId());
+        assertNull(results.get(1));
+        assertEquals("2", results.get(2).getInputId());
+    }
+
+    @Test(expected = SmartyException.class)
+    public void checkAddressesPropagatesBatchFailures() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        addressService.setAddressVerificationExecutor(executor);
+        client.failOnBatch = 2;
+
+        addressService.checkAddresses(inputs(500));
+    }
+
+    @Test(timeout = 10000)
+    public void failedBatchesReturnTheirPermits() throws Exception {
+        executor = Executors.newFixedThreadPool(1);
+        addressService.setAddressVerificationExecutor(executor);
+        addressService.setMaxConcurrentBatches(4);
+        client.delayMillis = 5;
+
+        // Each failure cancels batches still queued behind the failed one
+        for (int i = 0; i < 3; i++) {
+            client.failOnBatch = client.batchSizes.size();
+            try {
+                addressService.checkAddresses(inputs(500));
+                fail("Expected the batch failure to propagate");
+            } catch (SmartyException expected) {
+                // the next call must still get permits
+            }
+        }
+
+        client.failOnBatch = -1;
+        assertInputOrder(addressService.checkAddresses(inputs(500)), 500);
+    }
+
+    @Test
+    public void checkAddressesAsyncCompletesWithResultsInInputOrder() throws Exception {
+        CompletableFuture<List<AddressResultDTO>> future = addressService.checkAddressesAsync(inputs(150));
+
+        assertInputOrder(future.get(5, TimeUnit.SECONDS), 150);
+    }
+
+    @Test
+    public void checkAddressesAsyncFailsWithTimeoutWhenLookupIsTooSlow() throws Exception {
+        client.delayMillis = 2000;
+
+        CompletableFuture<List<AddressResultDTO>> future = addressService.checkAddressesAsync(inputs(1), 50, TimeUnit.MILLISECONDS);
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+            return;
+        }
+        throw new AssertionError("Expected the lookup to time out");
+    }
+
+    @Test
+    public void concurrentIdenticalLookupsShareOneRequest() throws Exception {
+        client.delayMillis = 200;
+        executor = Executors.newFixedThreadPool(8);
+
+        List<Future<AddressResultDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            AddressInputDTO dto = new AddressInputDTO("1 main  st", null, "Springfield", "IL", "62701");
+            dto.setInputId(String.valueOf(i));
+            futures.add(executor.submit(() -> addressService.checkAddress(dto)));
+        }
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(String.valueOf(i), futures.get(i).get(5, TimeUnit.SECONDS).getInputId());
+        }
+        assertEquals(1, client.lookupsSent.get());
+    }
+
+    @Test
+    public void sharedLookupIsRetriedWhenItsCallerTimesOut() throws Exception {
+        client.delayMillis = 500;
+        executor = Executors.newFixedThreadPool(1);
+        AddressInputDTO dto = new AddressInputDTO("1 Main St", null, "Springfield", "IL", "62701");
+
+        CompletableFuture<AddressResultDTO> leader = addressService.checkAddressAsync(dto, 150, TimeUnit.MILLISECONDS);
+        while (client.lookupsSent.get() == 0) {
+            Thread.sleep(1);
+        }
+        Future<AddressResultDTO> follower = executor.submit(() -> addressService.checkAddress(dto));
+
+        assertEquals("1 Main St", follower.get(5, TimeUnit.SECONDS).getLine1());
+        assertTrue(leader.isCompletedExceptionally());
+        assertEquals(2, client.lookupsSent.get());
+    }
+
+    @Test
+    public void sharedLookupFailingWithErrorReleasesFollowers() throws Exception {
+        client.delayMillis = 200;
+        client.error = new StackOverflowError();
+        executor = Executors.newFixedThreadPool(4);
+        AddressInputDTO dto = new AddressInputDTO("1 Main St", null, "Springfield", "IL", "62701");
+
+        List<Future<AddressResultDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> addressService.checkAddress(dto)));
+        }
+
+        for (Future<AddressResultDTO> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                throw new AssertionError("Expected the lookup to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof StackOverflowError);
+            }
+        }
+        assertEquals(1, client.lookupsSent.get());
+    }
+
+    @Test
+    public void singleLookupsWithinWindowAreSentAsOneBatch() throws Exception {
+        addressService.setCoalesceWindowMillis(200);
+        executor = Executors.newFixedThreadPool(10);
+
+        List<Future<AddressResultDTO>> futures = new ArrayList<>();
+        for (AddressInputDTO dto : inputs(10)) {
+            futures.add(executor.submit(() -> addressService.checkAddress(dto)));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i + " Main St", futures.get(i).get(5, TimeUnit.SECONDS).getLine1());
+        }
+        assertEquals(0, client.lookupsSent.get());
+        assertEquals(1, client.batchSizes.size());
+        addressService.destroy();
+    }
+
+    @Test
+    public void coalescedBatchFailingWithErrorReleasesEveryCaller() throws Exception {
+        addressService.setCoalesceWindowMillis(200);
+        client.error = new StackOverflowError();
+        executor = Executors.newFixedThreadPool(4);
+
+        List<Future<AddressResultDTO>> futures = new ArrayList<>();
+        for (AddressInputDTO dto : inputs(4)) {
+            futures.add(executor.submit(() -> addressService.checkAddress(dto)));
+        }
+
+        for (Future<AddressResultDTO> future : futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                throw new AssertionError("Expected the lookup to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof StackOverflowError);
+            }
+        }
+        assertEquals(1, client.batchSizes.size());
+        addressService.destroy();
+    }
+
+    private List<AddressInputDTO> inputs(int count) {
+        List<AddressInputDTO> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AddressInputDTO dto = new AddressInputDTO(i + " Main St", null, "Springfield", "IL", "62701");
+            dto.setInputId(String.valueOf(i));
+            inputs.add(dto);
+        }
+
+        return inputs;
+    }
+
+    private void assertInputOrder(List<AddressResultDTO> results, int count) {
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(String.valueOf(i), results.get(i).getInputId());
+            assertEquals(i + " Main St", results.get(i).getLine1());
+        }
+    }
+
+    /**
+     * Stands in for the SmartyStreets API: every lookup gets one candidate echoing its street back, unless the street
+     * is {@link #NO_MATCH}.
+     */
+    private static class StubClient extends Client {
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger lookupsSent = new AtomicInteger();
+        private volatile long delayMillis;
+        private volatile int failOnBatch = -1;
+        private volatile Error error;
+
+        StubClient() {
+            super(null, null);
+        }
+
+        @Override
+        public void send(Lookup lookup) throws IOException {
+            lookupsSent.incrementAndGet();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (error != null) {
+                throw error;
+            }
+            answer(lookup);
+        }
+
+        @Override
+        public void send(Batch batch) throws SmartyException, IOException {
+            int batchNumber = batchSizes.size();
+            batchSizes.add(batch.size());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+                if (batchNumber == failOnBatch) {
+                    throw new SmartyException("Simulated failure");
+                }
+                if (error != null) {
+                    throw error;
+                }
+                for (Lookup lookup : batch.getAllLookups()) {
+                    answer(lookup);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private void answer(Lookup lookup) {
+            ArrayList<Candidate> candidates = new ArrayList<>();
+            if (!NO_MATCH.equals(lookup.getStreet())) {
+                candidates.add(new EchoCandidate(lookup.getStreet()));
+            }
+            lookup.setResult(candidates);
+        }
+    }
+
+    private static class EchoCandidate extends Candidate {
+
+        private final String deliveryLine1;
+
+        EchoCandidate(String deliveryLine1) {
+            this.deliveryLine1 = deliveryLine1;
+        }
+
+        @Override
+        public String getDeliveryLine1() {
+            return deliveryLine1;
+        }
+    }
+
+}
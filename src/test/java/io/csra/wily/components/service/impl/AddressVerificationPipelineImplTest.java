@@ -0,0 +1,232 @@
+package io.csra.wily.components.service.impl;
+
+import com.smartystreets.api.exceptions.SmartyException;
+import io.csra.wily.components.io.CsvReader;
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CoordinatesDTO;
+import io.csra.wily.components.service.AddressService;
+import io.csra.wily.components.service.AddressVerificationPipeline.Format;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AddressVerificationPipelineImplTest {
+
+    private final StubAddressService addressService = new StubAddressService();
+    private AddressVerificationPipelineImpl pipeline;
+
+    @Before
+    public void setUp() {
+        pipeline = new AddressVerificationPipelineImpl(addressService);
+        pipeline.setChunkSize(3);
+        pipeline.setMaxChunksInFlight(2);
+    }
+
+    @After
+    public void tearDown() {
+        addressService.executor.shutdownNow();
+    }
+
+    @Test
+    public void writesChunksInInputOrderWhenLaterChunksFinishFirst() throws Exception {
+        StringBuilder csv = new StringBuilder("Input Id,Street,City,State,Zip Code\r\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("id-").append(i).append(',').append(i).append(" Main St,Fairfax,VA,22030\r\n");
+        }
+        csv.append(",,,,\r\n");
+        TrackingInputStream in = new TrackingInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(10, pipeline.verify(in, Format.CSV, out));
+
+        List<String[]> rows = read(out, ',');
+        assertEquals(11, rows.size());
+        assertEquals("Input Id", rows.get(0)[0]);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("id-" + i, rows.get(i + 1)[0]);
+            assertEquals(i + " MAIN ST", rows.get(i + 1)[column("Line 1", rows.get(0))]);
+        }
+        assertEquals(2, addressService.maxInFlight.get());
+        assertFalse(in.closed);
+    }
+
+    @Test
+    public void quotesFieldsAndNumbersUnnamedRowsInTsvOutput() throws Exception {
+        String tsv = "street\tcity\tstate\tzip\r\n\"1 Main St, \"\"Rear\"\"\"\tFairfax\tVA\t22030\r\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        pipeline.verify(new ByteArrayInputStream(tsv.getBytes(StandardCharsets.UTF_8)), Format.TSV, out);
+
+        List<String[]> rows = read(out, '\t');
+        assertEquals("1", rows.get(1)[0]);
+        assertEquals("1 MAIN ST, \"REAR\"", rows.get(1)[column("Line 1", rows.get(0))]);
+    }
+
+    @Test
+    public void readsXlsxInput() throws Exception {
+        ByteArrayOutputStream workbook = new ByteArrayOutputStream();
+        try (XSSFWorkbook xlsx = new XSSFWorkbook()) {
+            Sheet sheet = xlsx.createSheet();
+            String[][] cells = {{"Street", "City", "State"}, {"1 Main St", "Fairfax", "VA"}, {"2 Side St", "Vienna", "VA"}};
+            for (int r = 0; r < cells.length; r++) {
+                Row row = sheet.createRow(r);
+                for (int c = 0; c < cells[r].length; c++) {
+                    row.createCell(c).setCellValue(cells[r][c]);
+                }
+            }
+            xlsx.write(workbook);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, pipeline.verify(new ByteArrayInputStream(workbook.toByteArray()), Format.XLSX, out));
+
+        List<String[]> rows = read(out, ',');
+        assertEquals("2 SIDE ST", rows.get(2)[column("Line 1", rows.get(0))]);
+    }
+
+    @Test
+    public void failingChunkStopsTheRun() throws Exception {
+        StringBuilder csv = new StringBuilder("Street\r\n");
+        for (int i = 0; i < 12; i++) {
+            csv.append(i == 4 ? StubAddressService.FAIL : i + " Main St").append("\r\n");
+        }
+        TrackingInputStream in = new TrackingInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+
+        try {
+            pipeline.verify(in, Format.CSV, new ByteArrayOutputStream());
+        } catch (SmartyException expected) {
+            assertFalse(in.closed);
+            assertTrue(addressService.chunks.get() < 4);
+            return;
+        }
+        throw new AssertionError("Expected the run to fail");
+    }
+
+    private static int column(String header, String[] headers) {
+        for (int i = 0; i < headers.length; i++) {
+            if (header.equals(headers[i])) {
+                return i;
+            }
+        }
+        throw new AssertionError("No column " + header);
+    }
+
+    private static List<String[]> read(ByteArrayOutputStream out, char delimiter) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(new String(out.toByteArray(), StandardCharsets.UTF_8)), delimiter)) {
+            String[] row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static class TrackingInputStream extends ByteArrayInputStream {
+
+        private boolean closed;
+
+        TrackingInputStream(byte[] content) {
+            super(content);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    /**
+     * Upper-cases each street into Line 1. Earlier chunks take longer than later ones, so chunks finish out of order.
+     */
+    private static class StubAddressService implements AddressService {
+
+        private static final String FAIL = "FAIL";
+
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos) {
+            long delay = Math.max(0, 200 - 50L * chunks.getAndIncrement());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            CompletableFuture<List<AddressResultDTO>> future = new CompletableFuture<>();
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(delay);
+                    inFlight.decrementAndGet();
+                    future.complete(checkAddresses(dtos));
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        }
+
+        @Override
+        public List<AddressResultDTO> checkAddresses(List<AddressInputDTO> dtos) throws SmartyException {
+            List<AddressResultDTO> results = new ArrayList<>();
+            for (AddressInputDTO dto : dtos) {
+                if (FAIL.equals(dto.getStreet())) {
+                    throw new SmartyException("Simulated failure");
+                }
+                AddressResultDTO result = new AddressResultDTO();
+                result.setInputId(dto.getInputId());
+                result.setLine1(dto.getStreet().toUpperCase());
+                results.add(result);
+            }
+            return results;
+        }
+
+        @Override
+        public AddressResultDTO checkAddress(AddressInputDTO dto) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<AddressResultDTO> checkAddressAsync(AddressInputDTO dto, long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<AddressResultDTO>> checkAddressesAsync(List<AddressInputDTO> dtos, long timeout, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double distanceBetween(CoordinatesDTO coordinates1, CoordinatesDTO coordinates2) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
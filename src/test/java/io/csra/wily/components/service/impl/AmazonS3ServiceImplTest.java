@@ -0,0 +1,305 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.S3BulkResultDTO;
+import io.csra.wily.components.model.S3DocumentDTO;
+import io.csra.wily.components.model.S3DocumentMetadataDTO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AmazonS3ServiceImplTest {
+
+    private static final String KEY = "documents/bundle.pdf";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryAmazonS3 s3 = new InMemoryAmazonS3();
+    private ExecutorService executor;
+    private AmazonS3ServiceImpl service;
+    private byte[] content;
+
+    @Before
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("aws.s3.bucket.name", "bucket");
+        properties.put("aws.s3.multipart.threshold.bytes", 6 * 1024 * 1024);
+        properties.put("aws.s3.multipart.part.size.bytes", 5 * 1024 * 1024);
+        properties.put("aws.s3.multipart.max.in.flight", 2);
+        properties.put("aws.s3.bulk.max.in.flight", 3);
+        properties.put("aws.s3.list.page.size", 2);
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        service = new AmazonS3ServiceImpl(environment, s3);
+
+        content = new byte[3 * 1024 * 1024 + 17];
+        new Random(1).nextBytes(content);
+        s3.put(KEY, content);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void uploadsSmallDocumentInOneRequest() throws Exception {
+        byte[] upload = Arrays.copyOf(content, 1000);
+
+        service.uploadDocumentToS3(new ByteArrayMultipartFile(upload), "small.pdf", false);
+
+        assertArrayEquals(upload, s3.objects.get("small.pdf"));
+        assertEquals(0, s3.partsUploaded.get());
+    }
+
+    @Test
+    public void uploadsLargeDocumentInParallelParts() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+        service.setTransferExecutor(executor);
+        byte[] upload = new byte[17 * 1024 * 1024 + 5];
+        new Random(2).nextBytes(upload);
+
+        service.uploadDocumentToS3(new ByteArrayMultipartFile(upload), "large.pdf", true);
+
+        assertArrayEquals(upload, s3.objects.get("large.pdf"));
+        assertEquals(4, s3.partsUploaded.get());
+        assertTrue(s3.uploads.isEmpty());
+    }
+
+    @Test
+    public void failedPartAbortsUpload() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+        service.setTransferExecutor(executor);
+        s3.failOnPart = 2;
+
+        try {
+            service.uploadDocumentToS3(new ByteArrayMultipartFile(new byte[12 * 1024 * 1024]), "large.pdf", false);
+        } catch (IOException expected) {
+            assertEquals(1, s3.aborts.get());
+            assertTrue(s3.uploads.isEmpty());
+            assertFalse(s3.objects.containsKey("large.pdf"));
+            return;
+        }
+        throw new AssertionError("Expected the upload to fail");
+    }
+
+    @Test
+    public void readsRangeOfDocument() throws Exception {
+        S3DocumentDTO document = service.getDocumentRangeFromS3(KEY, 1000, 1999);
+
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 2000), document.getContent());
+        assertEquals(1000, document.getRangeStart());
+        assertEquals(1999, document.getRangeEnd());
+        assertEquals(content.length, document.getMetadata().getContentLength());
+    }
+
+    @Test
+    public void conditionalReadSkipsUnchangedDocument() throws Exception {
+        S3DocumentMetadataDTO metadata = service.getDocumentMetadataFromS3(KEY);
+        assertEquals(content.length, metadata.getContentLength());
+
+        assertTrue(service.getDocumentFromS3IfChanged(KEY, metadata.getETag(), null).isNotModified());
+        assertTrue(service.getDocumentFromS3IfChanged(KEY, null, metadata.getLastModified()).isNotModified());
+
+        S3DocumentDTO changed = service.getDocumentFromS3IfChanged(KEY, "stale-etag", null);
+        assertFalse(changed.isNotModified());
+        assertArrayEquals(content, changed.getContent());
+    }
+
+    @Test
+    public void metadataOfMissingDocumentIsNull() throws Exception {
+        assertNull(service.getDocumentMetadataFromS3("missing"));
+    }
+
+    @Test
+    public void getsWholeDocument() throws Exception {
+        assertArrayEquals(content, service.getDocumentFromS3(KEY));
+    }
+
+    @Test
+    public void streamsDocumentToOutputStreamAndChannel() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(content.length, service.getDocumentFromS3(KEY, out));
+        assertArrayEquals(content, out.toByteArray());
+
+        ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+        assertEquals(content.length, service.getDocumentFromS3(KEY, Channels.newChannel(channelOut)));
+        assertArrayEquals(content, channelOut.toByteArray());
+    }
+
+    @Test
+    public void downloadsDocumentToFile() throws Exception {
+        Path target = folder.getRoot().toPath().resolve("bundle.pdf");
+
+        assertEquals(content.length, service.downloadDocumentFromS3(KEY, target));
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void failedDownloadLeavesNoFile() throws Exception {
+        Path target = folder.getRoot().toPath().resolve("missing.pdf");
+
+        try {
+            service.downloadDocumentFromS3("missing", target);
+        } catch (IOException expected) {
+            assertFalse(Files.exists(target));
+            return;
+        }
+        throw new AssertionError("Expected the download to fail");
+    }
+
+    @Test
+    public void openedDocumentCanBeClosedEarly() throws Exception {
+        byte[] start = new byte[100];
+        try (InputStream in = service.openDocumentFromS3(KEY)) {
+            assertEquals(100, in.read(start));
+        }
+
+        assertArrayEquals(Arrays.copyOf(content, 100), start);
+    }
+
+    @Test
+    public void deletesDocumentsInBatchesOfAThousand() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            keys.add("purge/" + i);
+            s3.put("purge/" + i, new byte[1]);
+        }
+        s3.failOnDelete.add("purge/1234");
+
+        S3BulkResultDTO result = service.deleteDocumentsFromS3(keys);
+
+        assertEquals(3, s3.deleteRequests.get());
+        assertEquals(2499, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals("purge/1234", result.getFailures().get(0).getDocumentKey());
+        assertEquals("purge/1234", result.getResults().get(1234).getDocumentKey());
+        assertTrue(s3.objects.containsKey("purge/1234"));
+        assertEquals(2, s3.objects.size());
+    }
+
+    @Test
+    public void getsDocumentsInParallelAndReportsMissingOnes() throws Exception {
+        executor = Executors.newFixedThreadPool(3);
+        service.setTransferExecutor(executor);
+        s3.put("other.pdf", new byte[] {1, 2, 3});
+
+        S3BulkResultDTO result = service.getDocumentsFromS3(Arrays.asList(KEY, "missing", "other.pdf"));
+
+        assertEquals(3, result.getResults().size());
+        assertArrayEquals(content, result.getResults().get(0).getContent());
+        assertFalse(result.getResults().get(1).isSuccessful());
+        assertArrayEquals(new byte[] {1, 2, 3}, result.getResults().get(2).getContent());
+        assertEquals(content.length + 3, result.getBytes());
+    }
+
+    @Test
+    public void downloadsDocumentsUnderDirectory() throws Exception {
+        Path directory = folder.newFolder("downloads").toPath();
+
+        S3BulkResultDTO result = service.downloadDocumentsFromS3(Arrays.asList(KEY, "../escape.pdf"), directory);
+
+        assertArrayEquals(content, Files.readAllBytes(directory.resolve(KEY)));
+        assertTrue(result.getResults().get(0).isSuccessful());
+        assertFalse(result.getResults().get(1).isSuccessful());
+        assertFalse(Files.exists(directory.resolveSibling("escape.pdf")));
+    }
+
+    @Test
+    public void listsDocumentsOnePageAtATime() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            s3.put("reports/" + i + ".csv", new byte[i]);
+        }
+
+        List<String> firstThree = service.listDocumentsFromS3("reports/")
+                .limit(3)
+                .map(S3DocumentMetadataDTO::getDocumentKey)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("reports/0.csv", "reports/1.csv", "reports/2.csv"), firstThree);
+        assertEquals(2, s3.listRequests.get());
+
+        assertEquals(10, service.listDocumentsFromS3("reports/").mapToLong(S3DocumentMetadataDTO::getContentLength).sum());
+    }
+
+    private static class ByteArrayMultipartFile implements MultipartFile {
+
+        private final byte[] content;
+
+        ByteArrayMultipartFile(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "document.pdf";
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            throw new UnsupportedOperationException("Uploads should stream the file");
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void transferTo(File dest) {
+            throw new UnsupportedOperationException("Uploads should stream the file");
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.concurrent.AsyncExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncAmazonS3ServiceImplTest {
+
+    private final InMemoryAmazonS3 s3 = new InMemoryAmazonS3();
+    private AsyncExecutor asyncExecutor;
+    private AsyncAmazonS3ServiceImpl service;
+
+    @Before
+    public void setUp() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("aws.s3.bucket.name", "bucket")));
+
+        asyncExecutor = AsyncExecutor.create("s3-async-test-", true, 4);
+        service = new AsyncAmazonS3ServiceImpl(new AmazonS3ServiceImpl(environment, s3), asyncExecutor);
+
+        s3.put("a.pdf", new byte[] {1});
+        s3.put("b.pdf", new byte[] {2, 2});
+        s3.put("c.pdf", new byte[] {3, 3, 3});
+    }
+
+    @After
+    public void tearDown() {
+        asyncExecutor.shutdown();
+    }
+
+    @Test
+    public void fansOutDocumentFetches() throws Exception {
+        List<byte[]> documents = service.getDocumentsFromS3(Arrays.asList("c.pdf", "a.pdf", "b.pdf")).get();
+
+        assertEquals(3, documents.size());
+        assertArrayEquals(new byte[] {3, 3, 3}, documents.get(0));
+        assertArrayEquals(new byte[] {1}, documents.get(1));
+        assertArrayEquals(new byte[] {2, 2}, documents.get(2));
+        assertEquals(3, s3.gets.get());
+    }
+
+    @Test
+    public void failsWithTheBlockingCallsException() throws Exception {
+        try {
+            service.getDocumentsFromS3(Arrays.asList("a.pdf", "missing.pdf")).get();
+            fail("Expected the missing document to fail the fetch");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        assertNull(service.getDocumentMetadataFromS3("missing.pdf").get());
+    }
+
+}
@@ -0,0 +1,209 @@
+package io.csra.wily.components.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class CachingAmazonS3ServiceTest {
+
+    private static final int DOCUMENT_SIZE = 64 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryAmazonS3 s3 = new InMemoryAmazonS3();
+    private ExecutorService executor;
+    private CachingAmazonS3Service service;
+
+    @Before
+    public void setUp() throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap("aws.s3.bucket.name", "bucket")));
+
+        service = new CachingAmazonS3Service(new AmazonS3ServiceImpl(environment, s3), folder.newFolder("cache").toPath(),
+                2L * DOCUMENT_SIZE, Duration.ZERO);
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void repeatedReadsAreServedFromDisk() throws Exception {
+        byte[] content = document("a", 1);
+
+        assertArrayEquals(content, service.getDocumentFromS3("a"));
+        assertArrayEquals(content, service.getDocumentFromS3("a"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(DOCUMENT_SIZE, service.getDocumentFromS3("a", out));
+        assertArrayEquals(content, out.toByteArray());
+
+        try (InputStream in = service.openDocumentFromS3("a")) {
+            out.reset();
+            byte[] buffer = new byte[5000];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(content, out.toByteArray());
+
+        Path target = folder.getRoot().toPath().resolve("a.bin");
+        assertEquals(DOCUMENT_SIZE, service.downloadDocumentFromS3("a", target));
+        assertArrayEquals(content, Files.readAllBytes(target));
+
+        assertEquals(1, s3.gets.get());
+        assertEquals(DOCUMENT_SIZE, service.getCachedBytes());
+    }
+
+    @Test
+    public void documentChangedInS3IsFetchedAgain() throws Exception {
+        document("a", 1);
+        service.getDocumentFromS3("a");
+
+        byte[] changed = document("a", 2);
+
+        assertArrayEquals(changed, service.getDocumentFromS3("a"));
+        assertEquals(2, s3.gets.get());
+        assertEquals(DOCUMENT_SIZE, service.getCachedBytes());
+    }
+
+    @Test
+    public void deleteInvalidatesCachedCopy() throws Exception {
+        document("a", 1);
+        service.getDocumentFromS3("a");
+
+        service.deleteDocumentFromS3("a");
+
+        assertEquals(0, service.getCachedBytes());
+        try {
+            service.getDocumentFromS3("a");
+            fail("Deleted document was served from the cache");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedDocumentsOverBudget() throws Exception {
+        document("a", 1);
+        document("b", 2);
+        document("c", 3);
+
+        service.getDocumentFromS3("a");
+        service.getDocumentFromS3("b");
+        service.getDocumentFromS3("a");
+        service.getDocumentFromS3("c");
+        assertEquals(3, s3.gets.get());
+        assertEquals(2L * DOCUMENT_SIZE, service.getCachedBytes());
+
+        service.getDocumentFromS3("a");
+        assertEquals(3, s3.gets.get());
+
+        service.getDocumentFromS3("b");
+        assertEquals(4, s3.gets.get());
+        assertEquals(2L * DOCUMENT_SIZE, service.getCachedBytes());
+    }
+
+    @Test
+    public void concurrentReadsShareOneDownload() throws Exception {
+        byte[] content = document("a", 1);
+
+        for (Future<byte[]> read : readTogether("a", 8)) {
+            assertArrayEquals(content, read.get());
+        }
+        assertEquals(1, s3.gets.get());
+    }
+
+    @Test(timeout = 10000)
+    public void errorInSharedDownloadReleasesEveryReader() throws Exception {
+        document("a", 1);
+        s3.getError = new AssertionError("Simulated error");
+
+        for (Future<byte[]> read : readTogether("a", 8)) {
+            try {
+                read.get();
+                fail("Expected the download error");
+            } catch (ExecutionException e) {
+                assertSame(s3.getError, e.getCause());
+            }
+        }
+        assertEquals(1, s3.gets.get());
+    }
+
+    /**
+     * Starts the readers together and holds the first download until every reader is parked, either on the gate inside
+     * a GET or on a shared load.
+     */
+    private List<Future<byte[]>> readTogether(String key, int threads) throws InterruptedException {
+        executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        s3.getGate = new CountDownLatch(1);
+        List<Thread> readers = new CopyOnWriteArrayList<>();
+
+        List<Future<byte[]>> reads = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            reads.add(executor.submit(() -> {
+                start.await();
+                readers.add(Thread.currentThread());
+                return service.getDocumentFromS3(key);
+            }));
+        }
+        start.countDown();
+
+        while (readers.size() < threads || !allWaiting(readers)) {
+            Thread.sleep(5);
+        }
+        s3.getGate.countDown();
+
+        return reads;
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+        for (Thread thread : threads) {
+            if (thread.getState() != Thread.State.WAITING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] document(String key, long seed) {
+        byte[] content = new byte[DOCUMENT_SIZE];
+        new Random(seed).nextBytes(content);
+        s3.put(key, content);
+        return content;
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.io.CsvWriter;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DtoColumnModelTest {
+
+    private final DtoColumnModel columns = DtoColumnModel.forClass(Sample.class);
+    private final Sample sample = new Sample();
+
+    @Test
+    public void headsEveryFieldIncludingStaticOnes() {
+        assertArrayEquals(new String[] {"Count", "Ratio", "Weight", "Active", "Approved", "Amount", "Grade", "Label", "VERSION"},
+                columns.getHeaders());
+        assertSame(columns, DtoColumnModel.forFields(DtoColumnModel.fieldsOf(Sample.class)));
+    }
+
+    @Test
+    public void textAndCellValuesAgree() throws Exception {
+        String[] expected = {"-7", "0.5", "0.1", "true", "Y", "3.15", "A", "", "2"};
+
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        for (int column = 0; column < columns.size(); column++) {
+            assertEquals(expected[column], columns.format(sample, column));
+            columns.write(sample, column, writer);
+
+            Object cell = columns.cellValue(sample, column);
+            if (column == 5) {
+                assertEquals(3.145, (Double) cell, 0);
+            } else if (expected[column].isEmpty()) {
+                assertNull(cell);
+            } else {
+                assertEquals(expected[column], cell);
+            }
+        }
+        writer.flush();
+
+        assertEquals(String.join(",", expected), out.toString());
+    }
+
+    public static class Sample {
+
+        private int count = -7;
+        private double ratio = 0.5;
+        private float weight = 0.1f;
+        private boolean active = true;
+        private Boolean approved = Boolean.TRUE;
+        private BigDecimal amount = new BigDecimal("3.145");
+        private char grade = 'A';
+        private String label;
+        private static final int VERSION = 2;
+    }
+
+}
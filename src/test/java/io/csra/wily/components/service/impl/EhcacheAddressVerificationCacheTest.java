@@ -0,0 +1,103 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CachedAddressResultDTO;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EhcacheAddressVerificationCacheTest {
+
+    private EhcacheAddressVerificationCache cache;
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void returnsCopyOfCachedResultWithCallersInputId() {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofHours(1), Duration.ofHours(1));
+        cache.put(input("1 Main St", "1"), result("1 MAIN ST"));
+
+        CachedAddressResultDTO entry = cache.get(input(" 1 main st ", "2"));
+        entry.getResult().setLine1("changed");
+
+        assertEquals("2", entry.getResult().getInputId());
+        assertEquals("1 MAIN ST", cache.get(input("1 Main St", "3")).getResult().getLine1());
+        assertEquals(2, cache.getStatistics().getHits());
+    }
+
+    @Test
+    public void missesUncachedAddress() {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofHours(1), Duration.ofHours(1));
+
+        assertNull(cache.get(input("1 Main St", "1")));
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void expiresEntriesAfterTheirOwnTimeToLive() throws Exception {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofMillis(300), Duration.ofMillis(50));
+        cache.put(input("1 Main St", "1"), result("1 MAIN ST"));
+        cache.put(input("2 Side St", "2"), null);
+
+        Thread.sleep(150);
+        assertNotNull(cache.get(input("1 Main St", "1")));
+        assertNull(cache.get(input("2 Side St", "2")));
+
+        Thread.sleep(300);
+        assertNull(cache.get(input("1 Main St", "1")));
+    }
+
+    @Test
+    public void negativeEntriesAreSkippedWithoutNegativeTimeToLive() {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofHours(1), Duration.ZERO);
+        cache.put(input("1 Main St", "1"), null);
+
+        assertNull(cache.get(input("1 Main St", "1")));
+    }
+
+    @Test
+    public void negativeEntryIsReported() {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofHours(1), Duration.ofHours(1));
+        cache.put(input("1 Main St", "1"), null);
+
+        assertTrue(cache.get(input("1 Main St", "1")).isNegative());
+        assertEquals(1, cache.getStatistics().getNegativeHits());
+    }
+
+    @Test
+    public void holdsAtMostMaxEntries() {
+        cache = new EhcacheAddressVerificationCache(10, Duration.ofHours(1), Duration.ofHours(1));
+        for (int i = 0; i < 50; i++) {
+            cache.put(input(i + " Main St", "1"), result(i + " MAIN ST"));
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 50; i++) {
+            cached += cache.get(input(i + " Main St", "1")) == null ? 0 : 1;
+        }
+        assertTrue(cached <= 10);
+    }
+
+    private static AddressInputDTO input(String street, String inputId) {
+        AddressInputDTO input = new AddressInputDTO(street, null, "Fairfax", "VA", "22030");
+        input.setInputId(inputId);
+        return input;
+    }
+
+    private static AddressResultDTO result(String line1) {
+        AddressResultDTO result = new AddressResultDTO();
+        result.setLine1(line1);
+        return result;
+    }
+
+}
@@ -0,0 +1,58 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.SmartyStreetsCode;
+import io.csra.wily.components.service.SmartyStreetsCodeMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FootnoteDecoderTest {
+
+    private final Map<String, String> descriptions = SmartyStreetsCodeMap.getCodes();
+
+    private final List<String> decoded = new ArrayList<>();
+    private final Set<SmartyStreetsCode> codes = EnumSet.noneOf(SmartyStreetsCode.class);
+
+    @Test
+    public void decodesEachHashTerminatedFootnote() {
+        FootnoteDecoder.decodeFootnotes("A#LL#N#", decoded, codes);
+
+        assertEquals(Arrays.asList(descriptions.get("A#"), descriptions.get("LL#"), descriptions.get("N#")), decoded);
+        assertEquals(EnumSet.of(SmartyStreetsCode.A_HASH, SmartyStreetsCode.LL_HASH, SmartyStreetsCode.N_HASH), codes);
+    }
+
+    @Test
+    public void blankFootnotesAddSingleNull() {
+        FootnoteDecoder.decodeFootnotes(null, decoded, codes);
+
+        assertEquals(Arrays.asList((String) null), decoded);
+        assertTrue(codes.isEmpty());
+    }
+
+    @Test
+    public void decodesDpvFootnotesTwoCharactersAtATime() {
+        FootnoteDecoder.decodeDpvFootnotes("AABBZZR", decoded, codes);
+
+        assertEquals(Arrays.asList(descriptions.get("AA"), descriptions.get("BB"), null, null), decoded);
+        assertEquals(EnumSet.of(SmartyStreetsCode.AA, SmartyStreetsCode.BB), codes);
+    }
+
+    @Test
+    public void everyCodeResolvesToItselfAndItsCategory() {
+        for (SmartyStreetsCode code : SmartyStreetsCode.values()) {
+            assertEquals(code, SmartyStreetsCode.forCode(code.getCode()));
+            assertEquals(code.getDescription(), descriptions.get(code.getCode()));
+            assertTrue(SmartyStreetsCode.inCategory(code.getCategory()).contains(code));
+        }
+        assertEquals(SmartyStreetsCode.values().length, descriptions.size());
+    }
+
+}
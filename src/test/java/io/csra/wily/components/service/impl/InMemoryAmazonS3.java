@@ -0,0 +1,276 @@
+package io.csra.wily.components.service.impl;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for S3 in tests: a single bucket held in memory. Operations that are not overridden throw
+ * UnsupportedOperationException.
+ */
+class InMemoryAmazonS3 extends AbstractAmazonS3 {
+
+    static final Date LAST_MODIFIED = new Date(1600000000000L);
+
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    final AtomicInteger gets = new AtomicInteger();
+    final AtomicInteger partsUploaded = new AtomicInteger();
+    final AtomicInteger aborts = new AtomicInteger();
+    final AtomicInteger deleteRequests = new AtomicInteger();
+    final AtomicInteger listRequests = new AtomicInteger();
+    final Set<String> failOnDelete = ConcurrentHashMap.newKeySet();
+    volatile int failOnPart = -1;
+
+    /**
+     * When set, every GET waits for this latch before answering.
+     */
+    volatile CountDownLatch getGate;
+
+    /**
+     * When set, every GET throws this once past the gate.
+     */
+    volatile Error getError;
+
+    void put(String key, byte[] content) {
+        objects.put(key, content);
+    }
+
+    private void awaitGate() {
+        CountDownLatch gate = getGate;
+        if (gate == null) {
+            return;
+        }
+
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public S3Object getObject(GetObjectRequest request) {
+        gets.incrementAndGet();
+        awaitGate();
+        if (getError != null) {
+            throw getError;
+        }
+        byte[] content = content(request.getKey());
+        ObjectMetadata metadata = metadata(content);
+
+        if (request.getNonmatchingETagConstraints().contains(metadata.getETag())
+                || (request.getModifiedSinceConstraint() != null && !metadata.getLastModified().after(request.getModifiedSinceConstraint()))) {
+            return null;
+        }
+
+        int start = 0;
+        int end = content.length - 1;
+        long[] range = request.getRange();
+        if (range != null) {
+            start = (int) range[0];
+            end = (int) Math.min(range[1], content.length - 1);
+            metadata.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+        }
+        metadata.setContentLength(end - start + 1);
+
+        S3Object object = new S3Object();
+        object.setBucketName(request.getBucketName());
+        object.setKey(request.getKey());
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new S3ObjectInputStream(new ByteArrayInputStream(content, start, end - start + 1), null));
+        return object;
+    }
+
+    @Override
+    public ObjectMetadata getObjectMetadata(String bucketName, String key) {
+        return metadata(content(key));
+    }
+
+    @Override
+    public void deleteObject(DeleteObjectRequest request) {
+        objects.remove(request.getKey());
+    }
+
+    @Override
+    public DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+        if (request.getKeys().size() > 1000) {
+            throw new IllegalArgumentException("Too many keys in one delete request");
+        }
+        deleteRequests.incrementAndGet();
+
+        List<MultiObjectDeleteException.DeleteError> errors = new ArrayList<>();
+        List<DeleteObjectsResult.DeletedObject> deleted = new ArrayList<>();
+        for (DeleteObjectsRequest.KeyVersion keyVersion : request.getKeys()) {
+            if (failOnDelete.contains(keyVersion.getKey())) {
+                MultiObjectDeleteException.DeleteError error = new MultiObjectDeleteException.DeleteError();
+                error.setKey(keyVersion.getKey());
+                error.setCode("AccessDenied");
+                error.setMessage("Access Denied");
+                errors.add(error);
+            } else {
+                objects.remove(keyVersion.getKey());
+                DeleteObjectsResult.DeletedObject deletedObject = new DeleteObjectsResult.DeletedObject();
+                deletedObject.setKey(keyVersion.getKey());
+                deleted.add(deletedObject);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new MultiObjectDeleteException(errors, deleted);
+        }
+        return new DeleteObjectsResult(request.getQuiet() ? new ArrayList<>() : deleted);
+    }
+
+    @Override
+    public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+        listRequests.incrementAndGet();
+
+        String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+        String after = request.getContinuationToken() == null ? "" : request.getContinuationToken();
+
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        for (Map.Entry<String, byte[]> entry : new TreeMap<>(objects).tailMap(after, false).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                continue;
+            }
+            if (result.getObjectSummaries().size() == request.getMaxKeys()) {
+                result.setTruncated(true);
+                result.setNextContinuationToken(result.getObjectSummaries().get(request.getMaxKeys() - 1).getKey());
+                break;
+            }
+
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey(entry.getKey());
+            summary.setSize(entry.getValue().length);
+            summary.setETag(DigestUtils.md5Hex(entry.getValue()));
+            summary.setLastModified(LAST_MODIFIED);
+            result.getObjectSummaries().add(summary);
+        }
+        result.setKeyCount(result.getObjectSummaries().size());
+        return result;
+    }
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request) {
+        objects.put(request.getKey(), read(request.getInputStream()));
+        return new PutObjectResult();
+    }
+
+    @Override
+    public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentSkipListMap<>());
+
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId(uploadId);
+        return result;
+    }
+
+    @Override
+    public UploadPartResult uploadPart(UploadPartRequest request) {
+        if (request.getPartNumber() == failOnPart) {
+            throw new AmazonS3Exception("Simulated part failure");
+        }
+
+        byte[] part = read(request.getInputStream());
+        if (part.length != request.getPartSize()) {
+            throw new IllegalArgumentException("Part size does not match content");
+        }
+        uploads.get(request.getUploadId()).put(request.getPartNumber(), part);
+        partsUploaded.incrementAndGet();
+
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag("etag-" + request.getPartNumber());
+        return result;
+    }
+
+    @Override
+    public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        Map<Integer, byte[]> parts = uploads.remove(request.getUploadId());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (PartETag partETag : request.getPartETags()) {
+            byte[] part = parts.get(partETag.getPartNumber());
+            content.write(part, 0, part.length);
+        }
+        objects.put(request.getKey(), content.toByteArray());
+
+        return new CompleteMultipartUploadResult();
+    }
+
+    @Override
+    public void abortMultipartUpload(AbortMultipartUploadRequest request) {
+        aborts.incrementAndGet();
+        uploads.remove(request.getUploadId());
+    }
+
+    private byte[] content(String key) {
+        byte[] content = objects.get(key);
+        if (content == null) {
+            AmazonS3Exception e = new AmazonS3Exception("The specified key does not exist.");
+            e.setStatusCode(404);
+            throw e;
+        }
+
+        return content;
+    }
+
+    private ObjectMetadata metadata(byte[] content) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        metadata.setContentType("application/pdf");
+        metadata.setHeader("ETag", DigestUtils.md5Hex(content));
+        metadata.setLastModified(LAST_MODIFIED);
+        return metadata;
+    }
+
+    private static byte[] read(InputStream in) {
+        try {
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package io.csra.wily.components.service.impl;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.core.ScanCursor;
+import org.springframework.data.redis.core.ScanIteration;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Just enough of a Redis server for the address verification cache: GET, SET with expiry, DEL and SCAN over an
+ * in-memory map. Expiry is recorded, not enforced. KEYS is rejected so a test fails if it is ever used.
+ */
+class InMemoryRedis implements RedisConnectionFactory {
+
+    final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    final Map<String, Long> ttlMillis = new ConcurrentHashMap<>();
+    final AtomicInteger scans = new AtomicInteger();
+    volatile boolean down;
+
+    @Override
+    public RedisConnection getConnection() {
+        return (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {RedisConnection.class},
+                (proxy, method, args) -> invoke(method, args));
+    }
+
+    private Object invoke(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "close":
+            case "isClosed":
+            case "isPipelined":
+            case "isQueueing":
+                return defaultValue(method.getReturnType());
+            case "get":
+                checkUp();
+                return values.get(key(args[0]));
+            case "pSetEx":
+                checkUp();
+                values.put(key(args[0]), (byte[]) args[2]);
+                ttlMillis.put(key(args[0]), (Long) args[1]);
+                return Boolean.TRUE;
+            case "setEx":
+                checkUp();
+                values.put(key(args[0]), (byte[]) args[2]);
+                ttlMillis.put(key(args[0]), (Long) args[1] * 1000);
+                return Boolean.TRUE;
+            case "del":
+                checkUp();
+                long deleted = 0;
+                for (Object key : (Object[]) args[0]) {
+                    ttlMillis.remove(key((byte[]) key));
+                    deleted += values.remove(key((byte[]) key)) == null ? 0 : 1;
+                }
+                return deleted;
+            case "scan":
+                checkUp();
+                scans.incrementAndGet();
+                return scan((ScanOptions) args[0]);
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private ScanCursor<byte[]> scan(ScanOptions options) {
+        String prefix = options.getPattern().substring(0, options.getPattern().length() - 1);
+        List<byte[]> matches = new ArrayList<>();
+        for (String key : values.keySet()) {
+            if (key.startsWith(prefix)) {
+                matches.add(key.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return new ScanCursor<byte[]>(options) {
+            @Override
+            protected ScanIteration<byte[]> doScan(long cursorId, ScanOptions options) {
+                return new ScanIteration<>(0, matches);
+            }
+        }.open();
+    }
+
+    private void checkUp() {
+        if (down) {
+            throw new RedisConnectionFailureException("Redis is down");
+        }
+    }
+
+    private static String key(Object key) {
+        return new String((byte[]) key, StandardCharsets.UTF_8);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type == boolean.class ? Boolean.FALSE : null;
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return false;
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+
+}
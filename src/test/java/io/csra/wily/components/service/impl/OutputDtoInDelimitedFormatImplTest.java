@@ -0,0 +1,57 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.service.OutputDtoInDelimitedFormat.Format;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class OutputDtoInDelimitedFormatImplTest {
+
+    private final OutputDtoInDelimitedFormatImpl exporter = new OutputDtoInDelimitedFormatImpl();
+
+    @Test
+    public void writesCsvWithExcelFormattingRules() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(Arrays.asList(new LedgerRow("Acme, \"Inc\"", -42L, new BigDecimal("3.145"), true),
+                new LedgerRow(null, Long.MIN_VALUE, null, false)), LedgerRow.class, out, Format.CSV, false);
+
+        assertEquals("Company Name,Entry Count,Balance,Reconciled\r\n"
+                + "\"Acme, \"\"Inc\"\"\",-42,3.15,Y\r\n"
+                + "," + Long.MIN_VALUE + ",,N\r\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writesGzippedTsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(Arrays.asList(new LedgerRow("Acme, Inc", 7L, BigDecimal.ONE, null)).stream(), LedgerRow.class, out, Format.TSV, true);
+
+        String text = IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8);
+        assertEquals("Company Name\tEntry Count\tBalance\tReconciled\r\nAcme, Inc\t7\t1.00\t\r\n", text);
+    }
+
+    public static class LedgerRow {
+
+        private final String companyName;
+        private final long entryCount;
+        private final BigDecimal balance;
+        private final Boolean reconciled;
+
+        LedgerRow(String companyName, long entryCount, BigDecimal balance, Boolean reconciled) {
+            this.companyName = companyName;
+            this.entryCount = entryCount;
+            this.balance = balance;
+            this.reconciled = reconciled;
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.io.XlsxRowReader;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OutputDtoInExcelFormatImplTest {
+
+    private final OutputDtoInExcelFormatImpl exporter = new OutputDtoInExcelFormatImpl();
+
+    @Test
+    public void writesXlsWorkbookByDefault() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(rows(3), ReportRow.class, out, "jdoe");
+
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Report Name", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("row 2", sheet.getRow(3).getCell(0).getStringCellValue());
+            assertEquals(2.5, sheet.getRow(3).getCell(1).getNumericCellValue(), 0);
+            assertEquals("Y", sheet.getRow(3).getCell(2).getStringCellValue());
+            assertTrue(sheet.getRow(5).getCell(0).getStringCellValue().endsWith("by jdoe"));
+        }
+    }
+
+    @Test
+    public void streamingModeWritesMoreRowsThanXlsAllows() throws Exception {
+        exporter.setMode(OutputDtoInExcelFormatImpl.Mode.XLSX_STREAMING);
+        exporter.setRowAccessWindowSize(50);
+        exporter.setCompressTempFiles(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(rows(70000), ReportRow.class, out, "jdoe");
+
+        try (XlsxRowReader reader = new XlsxRowReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertArrayEquals(new String[]{"Report Name", "Amount", "Active"}, reader.readRow());
+            for (int i = 0; i < 70000; i++) {
+                assertEquals("row " + i, reader.readRow()[0]);
+            }
+            assertTrue(reader.readRow()[0].endsWith("by jdoe"));
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    public void streamedRowsBeyondXlsLimitContinueOnNextSheet() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(rows(70000).stream(), ReportRow.class, out, "jdoe");
+
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(2, workbook.getNumberOfSheets());
+            Sheet first = workbook.getSheetAt(0);
+            assertEquals("row 65532", first.getRow(65533).getCell(0).getStringCellValue());
+            assertTrue(first.getRow(65535).getCell(0).getStringCellValue().endsWith("by jdoe"));
+
+            Sheet second = workbook.getSheetAt(1);
+            assertEquals("Report Name", second.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("row 65533", second.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("row 69999", second.getRow(4467).getCell(0).getStringCellValue());
+            assertTrue(second.getRow(4469).getCell(0).getStringCellValue().endsWith("by jdoe"));
+        }
+    }
+
+    @Test
+    public void writesPrimitiveAndStaticFieldsAsText() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.write(Collections.singletonList(new PrimitiveRow()), PrimitiveRow.class, out, "jdoe");
+
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Row row = workbook.getSheetAt(0).getRow(1);
+            String[] expected = {"v1", "7", "1234567890123", "2.5", "true", "x"};
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], row.getCell(i).getStringCellValue());
+            }
+        }
+    }
+
+    @Test
+    public void writesPagesInOrderUntilAnEmptyPage() throws Exception {
+        exporter.setMode(OutputDtoInExcelFormatImpl.Mode.XLSX_STREAMING);
+        List<ReportRow> all = rows(25);
+        List<Integer> requested = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.writePages(page -> {
+            requested.add(page);
+            return all.subList(Math.min(page * 10, all.size()), Math.min(page * 10 + 10, all.size()));
+        }, ReportRow.class, out, "jdoe");
+
+        assertEquals(Arrays.asList(0, 1, 2, 3), requested);
+        try (XlsxRowReader reader = new XlsxRowReader(new ByteArrayInputStream(out.toByteArray()))) {
+            reader.readRow();
+            for (int i = 0; i < 25; i++) {
+                assertEquals("row " + i, reader.readRow()[0]);
+            }
+        }
+    }
+
+    @Test
+    public void parallelExportSplitsRowsAcrossSheetsInOrder() throws Exception {
+        exporter.setRowsPerSheet(10000);
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        exporter.write(rows(25000), ReportRow.class, sequential, "jdoe");
+
+        exporter.setParallel(true);
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        exporter.write(rows(25000), ReportRow.class, parallel, "jdoe");
+
+        try (Workbook expected = new HSSFWorkbook(new ByteArrayInputStream(sequential.toByteArray()));
+             Workbook actual = new HSSFWorkbook(new ByteArrayInputStream(parallel.toByteArray()))) {
+            assertEquals(3, actual.getNumberOfSheets());
+            int rowNumber = 0;
+            for (int sheetNumber = 0; sheetNumber < 3; sheetNumber++) {
+                Sheet sheet = actual.getSheetAt(sheetNumber);
+                int rows = sheetNumber < 2 ? 10000 : 5000;
+                assertEquals("Report Name", sheet.getRow(0).getCell(0).getStringCellValue());
+                for (int i = 1; i <= rows; i++) {
+                    assertEquals("row " + rowNumber++, sheet.getRow(i).getCell(0).getStringCellValue());
+                    assertEquals(expected.getSheetAt(sheetNumber).getRow(i).getCell(1).getNumericCellValue(),
+                            sheet.getRow(i).getCell(1).getNumericCellValue(), 0);
+                }
+                assertNull(sheet.getRow(rows + 1));
+                assertTrue(sheet.getRow(rows + 2).getCell(0).getStringCellValue().endsWith("by jdoe"));
+            }
+        }
+    }
+
+    @Test
+    public void iteratorExportUsesOverriddenWriteBodyOnEverySheet() throws Exception {
+        List<Integer> sheetsWritten = new ArrayList<>();
+        OutputDtoInExcelFormatImpl custom = new OutputDtoInExcelFormatImpl() {
+            @Override
+            protected <E> int writeBody(Workbook workbook, Sheet sheet, Iterator<E> dtos, Field[] fields) {
+                sheetsWritten.add(workbook.getSheetIndex(sheet));
+                int next = super.writeBody(workbook, sheet, dtos, fields);
+                sheet.getRow(1).createCell(fields.length).setCellValue("custom");
+                return next;
+            }
+        };
+        custom.setRowsPerSheet(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        custom.write(rows(5).iterator(), ReportRow.class, out, "jdoe");
+
+        assertEquals(Arrays.asList(0, 1, 2), sheetsWritten);
+        try (Workbook workbook = new HSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            for (int i = 0; i < 3; i++) {
+                Sheet sheet = workbook.getSheetAt(i);
+                assertEquals("row " + i * 2, sheet.getRow(1).getCell(0).getStringCellValue());
+                assertEquals("custom", sheet.getRow(1).getCell(3).getStringCellValue());
+            }
+            assertTrue(workbook.getSheetAt(2).getRow(3).getCell(0).getStringCellValue().endsWith("by jdoe"));
+        }
+    }
+
+    private List<ReportRow> rows(int count) {
+        List<ReportRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new ReportRow("row " + i, BigDecimal.valueOf(i).add(new BigDecimal("0.5")), i % 2 == 0));
+        }
+
+        return rows;
+    }
+
+    public static class PrimitiveRow {
+
+        private static final String VERSION = "v1";
+
+        private final int count = 7;
+        private final long total = 1234567890123L;
+        private final double ratio = 2.5;
+        private final boolean flagged = true;
+        private final char grade = 'x';
+    }
+
+    public static class ReportRow {
+
+        private final String reportName;
+        private final BigDecimal amount;
+        private final Boolean active;
+
+        ReportRow(String reportName, BigDecimal amount, Boolean active) {
+            this.reportName = reportName;
+            this.amount = amount;
+            this.active = active;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package io.csra.wily.components.service.impl;
+
+import io.csra.wily.components.model.AddressInputDTO;
+import io.csra.wily.components.model.AddressResultDTO;
+import io.csra.wily.components.model.CachedAddressResultDTO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RedisAddressVerificationCacheTest {
+
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private RedisAddressVerificationCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new RedisAddressVerificationCache(redis, "test:", Duration.ofHours(24), Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void returnsCopyOfCachedResultWithCallersInputId() {
+        cache.put(input("1"), result("1 Main St"));
+
+        CachedAddressResultDTO entry = cache.get(input("2"));
+
+        assertEquals("1 Main St", entry.getResult().getLine1());
+        assertEquals("2", entry.getResult().getInputId());
+        assertEquals(1, cache.getStatistics().getHits());
+    }
+
+    @Test
+    public void missesUncachedAddress() {
+        assertNull(cache.get(input("1")));
+        assertEquals(1, cache.getStatistics().getMisses());
+    }
+
+    @Test
+    public void storesPositiveAndNegativeEntriesWithTheirOwnTimeToLive() {
+        AddressInputDTO other = new AddressInputDTO("2 Side St", null, "Fairfax", "VA", "22030");
+        cache.put(input("1"), result("1 Main St"));
+        cache.put(other, null);
+
+        assertTrue(cache.get(other).isNegative());
+        assertEquals(1, cache.getStatistics().getNegativeHits());
+        assertEquals(Long.valueOf(Duration.ofHours(24).toMillis()), redis.ttlMillis.get("test:" + input("1").toNormalizedKey()));
+        assertEquals(Long.valueOf(Duration.ofMinutes(5).toMillis()), redis.ttlMillis.get("test:" + other.toNormalizedKey()));
+    }
+
+    @Test
+    public void unreadableEntryIsAMissAndIsDeleted() {
+        cache.put(input("1"), result("1 Main St"));
+        redis.values.replaceAll((key, value) -> new byte[] {1, 2, 3});
+
+        assertNull(cache.get(input("1")));
+        assertTrue(redis.values.isEmpty());
+    }
+
+    @Test
+    public void outageIsAMiss() {
+        redis.down = true;
+
+        cache.put(input("1"), result("1 Main St"));
+        assertNull(cache.get(input("1")));
+        cache.evict(input("1"));
+        cache.clear();
+    }
+
+    @Test
+    public void clearScansOnlyThisCachesKeys() {
+        redis.values.put("other:key", new byte[] {1});
+        for (int i = 0; i < 1200; i++) {
+            cache.put(new AddressInputDTO(i + " Main St", null, "Fairfax", "VA", "22030"), null);
+        }
+
+        cache.clear();
+
+        assertEquals(1, redis.scans.get());
+        assertEquals(1, redis.values.size());
+        assertTrue(redis.values.containsKey("other:key"));
+    }
+
+    private static AddressInputDTO input(String inputId) {
+        AddressInputDTO input = new AddressInputDTO("1 Main St", null, "Fairfax", "VA", "22030");
+        input.setInputId(inputId);
+        return input;
+    }
+
+    private static AddressResultDTO result(String line1) {
+        AddressResultDTO result = new AddressResultDTO();
+        result.setLine1(line1);
+        return result;
+    }
+
+}
@@ -0,0 +1,93 @@
+package io.csra.wily.components.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ReferenceVariablesServiceImplTest {
+
+    private final Map<String, Object> properties = new HashMap<>();
+    private ReferenceVariablesServiceImpl service;
+
+    @Before
+    public void setUp() {
+        properties.put("delimiter.pair", ";");
+        properties.put("delimiter.keyValue", "=");
+        properties.put("ref.state", "VA=Virginia;MD=Maryland;DC=District of Columbia");
+        properties.put("ref.single", "Y=Yes");
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+        service = new ReferenceVariablesServiceImpl(environment);
+    }
+
+    @Test
+    public void parsesReferencesInPropertyAndKeyOrder() {
+        assertEquals(Arrays.asList("VA", "MD", "DC"), new ArrayList<>(service.getReferences("ref.state").keySet()));
+        assertEquals(Arrays.asList("DC", "MD", "VA"), new ArrayList<>(service.getOrderedReferences("ref.state").keySet()));
+        assertEquals("Yes", service.getValue("Y", "ref.single"));
+        assertEquals("Unknown", service.getValue("XX", "ref.state"));
+        assertTrue(service.getReferences("ref.missing").isEmpty());
+    }
+
+    @Test
+    public void cachesParsedListsUntilRefreshed() {
+        Map<String, String> states = service.getReferences("ref.state");
+        assertSame(states, service.getReferences("ref.state"));
+
+        properties.put("ref.state", "PA=Pennsylvania");
+        assertEquals("Maryland", service.getValue("MD", "ref.state"));
+
+        service.refresh("ref.state");
+        assertEquals("Unknown", service.getValue("MD", "ref.state"));
+        assertEquals("Pennsylvania", service.getValue("PA", "ref.state"));
+    }
+
+    @Test
+    public void looksUpKeysByDescriptionIgnoringCase() {
+        assertEquals("MD", service.getKey("maryland", "ref.state"));
+        assertEquals("DC", service.getKey("DISTRICT OF COLUMBIA", "ref.state"));
+        assertNull(service.getKey("Mary", "ref.state"));
+        assertNull(service.getKey(null, "ref.state"));
+    }
+
+    @Test
+    public void findsReferencesByDescriptionPrefix() {
+        properties.put("ref.state", "VA=Virginia;MD=Maryland;DC=District of Columbia;WV=West Virginia;MA=Massachusetts;ME=Maine");
+        service.refresh();
+
+        assertEquals(Arrays.asList("ME", "MD", "MA"), keys(service.findReferencesByPrefix("ma", "ref.state")));
+        assertEquals(Arrays.asList("MD"), keys(service.findReferencesByPrefix("MARY", "ref.state")));
+        assertEquals(Arrays.asList("VA"), keys(service.findReferencesByPrefix("virginia", "ref.state")));
+        assertTrue(service.findReferencesByPrefix("virginias", "ref.state").isEmpty());
+        assertTrue(service.findReferencesByPrefix("z", "ref.state").isEmpty());
+        assertEquals(6, service.findReferencesByPrefix("", "ref.state").size());
+        assertEquals("Maine", service.findReferencesByPrefix("m", "ref.state").get(0).getValue());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void referencesCannotBeModified() {
+        service.getReferences("ref.state").put("NY", "New York");
+    }
+
+    private List<String> keys(List<Map.Entry<String, String>> references) {
+        List<String> keys = new ArrayList<>(references.size());
+        for (Map.Entry<String, String> reference : references) {
+            keys.add(reference.getKey());
+        }
+        return keys;
+    }
+
+}